@@ -0,0 +1,162 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.random.RandomGenerator;
+
+/**
+ * Lab1 各项操作在仓库自带语料上的基准。
+ * JMH 生成的代码不能放在默认包里，因此基准位于 bench 包，通过方法句柄调用默认包中的 Lab1 等类。
+ * 查询用的词对与文本在 Setup 中用固定种子从语料里抽取，每次运行都相同。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class Lab1Benchmark {
+    private static final int PAIRS = 256;
+
+    private static final MethodHandle PARSE = handle("Lab1", "parseTextToGraph", String.class);
+    private static final MethodHandle CLEAR = handle("Lab1", "clearGraph");
+    private static final MethodHandle BRIDGE = handle("Lab1", "queryBridgeWords", String.class, String.class);
+    private static final MethodHandle GENERATE = handle("Lab1", "generateNewText", String.class);
+    private static final MethodHandle SHORTEST = handle("Lab1", "calcShortestPath", String.class, String.class);
+    private static final MethodHandle PAGE_RANK = handle("Lab1", "calPageRank", double.class);
+    private static final MethodHandle LOAD = handle("GraphSnapshot", "loadOrParse", Path.class);
+    private static final MethodHandle COLD_PAGE_RANK = handle("PageRank", "compute",
+            type("WordGraph"), type("PageRank$Options"));
+    private static final MethodHandle PAGE_RANK_OPTIONS = handle("PageRank$Options", "of", double.class);
+    private static final MethodHandle WALK = handle("GraphQueries", "randomWalk",
+            type("WordGraph"), RandomGenerator.class);
+
+    @Param({"Easy Test.txt", "example.txt", "Cursed Be The Treasure.txt"})
+    public String corpus;
+
+    private String path;
+    private Object graph;
+    private Object options;
+    private String[] bridgeFrom;
+    private String[] bridgeTo;
+    private String[] pathFrom;
+    private String[] pathTo;
+    private String text;
+    private final SplittableRandom random = new SplittableRandom(42);
+    private int next;
+
+    @Setup
+    public void setUp() throws Throwable {
+        Path file = Path.of(System.getProperty("corpus.dir", "."), corpus);
+        if (!Files.isRegularFile(file)) {
+            throw new IOException("找不到语料 " + file.toAbsolutePath() + "，请在仓库根目录运行或设置 -Dcorpus.dir");
+        }
+        path = file.toString();
+        CLEAR.invoke();
+        PARSE.invoke(path);
+        graph = LOAD.invoke(file);
+        options = PAGE_RANK_OPTIONS.invoke(0.85);
+
+        String[] tokens = Files.readString(file).toLowerCase(Locale.ROOT).split("[^a-z]+");
+        tokens = Arrays.stream(tokens).filter(t -> !t.isEmpty()).toArray(String[]::new);
+        SplittableRandom pick = new SplittableRandom(42);
+        bridgeFrom = new String[PAIRS];
+        bridgeTo = new String[PAIRS];
+        pathFrom = new String[PAIRS];
+        pathTo = new String[PAIRS];
+        for (int i = 0; i < PAIRS; i++) {
+            // 相隔一个词的两个词一定有桥接词；最短路径则取任意两个词
+            int at = pick.nextInt(Math.max(1, tokens.length - 2));
+            bridgeFrom[i] = tokens[at];
+            bridgeTo[i] = tokens[Math.min(at + 2, tokens.length - 1)];
+            pathFrom[i] = tokens[pick.nextInt(tokens.length)];
+            pathTo[i] = tokens[pick.nextInt(tokens.length)];
+        }
+        int start = pick.nextInt(Math.max(1, tokens.length - 30));
+        text = String.join(" ", Arrays.copyOfRange(tokens, start, Math.min(tokens.length, start + 30)));
+    }
+
+    private int next() {
+        return next = (next + 1) & (PAIRS - 1);
+    }
+
+    @Benchmark
+    public void parseTextToGraph() throws Throwable {
+        // parseTextToGraph 会累加到已读入的图上，先清空才是一次完整的解析
+        CLEAR.invoke();
+        PARSE.invoke(path);
+    }
+
+    @Benchmark
+    public Object queryBridgeWords() throws Throwable {
+        int i = next();
+        return BRIDGE.invoke(bridgeFrom[i], bridgeTo[i]);
+    }
+
+    @Benchmark
+    public Object generateNewText() throws Throwable {
+        return GENERATE.invoke(text);
+    }
+
+    @Benchmark
+    public Object calcShortestPath() throws Throwable {
+        int i = next();
+        return SHORTEST.invoke(pathFrom[i], pathTo[i]);
+    }
+
+    /** 与交互时相同：图未变化时从上次收敛的结果热启动，主要是一次迭代加上生成词表。 */
+    @Benchmark
+    public Object calPageRank() throws Throwable {
+        return PAGE_RANK.invoke(0.85);
+    }
+
+    /** 从均匀分布开始迭代到收敛。 */
+    @Benchmark
+    public Object calPageRankCold() throws Throwable {
+        return COLD_PAGE_RANK.invoke(graph, options);
+    }
+
+    /** Lab1.randomWalk 还会写 random_walk.txt，这里只测游走本身。 */
+    @Benchmark
+    public Object randomWalk() throws Throwable {
+        return WALK.invoke(graph, random);
+    }
+
+    private static Class<?> type(String name) {
+        try {
+            return Class.forName(name);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static MethodHandle handle(String owner, String name, Class<?>... parameters) {
+        try {
+            Method method = type(owner).getDeclaredMethod(name, parameters);
+            method.setAccessible(true);
+            return MethodHandles.lookup().unreflect(method);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,187 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 图形界面的后台任务。计算在调用者给出的执行器上运行，进度、中间结果与最终结果经 ui 执行器
+ * （JavaFX 中为 Platform::runLater）交回界面线程，回调总在 ui 执行器上调用。
+ * 每类操作（key）同时只运行一个任务：参数相同的重复请求并入正在运行的任务，参数不同的请求被拒绝。
+ * 进度只保留最新的一条，界面线程取走上一条之前不会再排队，计算不会被界面拖慢，界面也不会被刷屏。
+ * 取消时立即释放该类操作并回调 failed(CancellationException)，同时中断工作线程，
+ * 之后的 report / publish / checkpoint 抛出 CancellationException，已取消任务的结果被丢弃。
+ */
+final class BackgroundJobs {
+    enum Submission {
+        STARTED, COALESCED, REJECTED
+    }
+
+    @FunctionalInterface
+    interface Work<T> {
+        T run(Job job) throws Exception;
+    }
+
+    interface Callbacks<T> {
+        /** fraction 为 [0, 1] 内的进度，尚未报告过时为负数；partial 为到目前为止的中间结果，与上次相比没有变化时为 null。 */
+        default void progress(double fraction, String partial) {
+        }
+
+        void succeeded(T result);
+
+        /** 任务抛出异常或被取消（此时 error 为 CancellationException）。 */
+        void failed(Throwable error);
+    }
+
+    private final Executor ui;
+    private final Map<String, Job> running = new HashMap<>();
+
+    BackgroundJobs(Executor ui) {
+        this.ui = ui;
+    }
+
+    /** 在 executor 上启动任务；同一 key 已有任务在运行时按 args 是否相同合并或拒绝。 */
+    synchronized <T> Submission submit(String key, Object args, Executor executor, Work<T> work,
+                                       Callbacks<T> callbacks) {
+        Job current = running.get(key);
+        if (current != null) {
+            return Objects.equals(current.args, args) ? Submission.COALESCED : Submission.REJECTED;
+        }
+        Job job = new Job(key, args, callbacks);
+        running.put(key, job);
+        executor.execute(() -> job.run(work, callbacks));
+        return Submission.STARTED;
+    }
+
+    synchronized boolean isRunning(String key) {
+        return running.containsKey(key);
+    }
+
+    /** 取消 key 对应的任务；没有任务在运行时返回 false。 */
+    boolean cancel(String key) {
+        Job job;
+        synchronized (this) {
+            job = running.remove(key);
+        }
+        if (job == null) {
+            return false;
+        }
+        job.cancel();
+        return true;
+    }
+
+    void cancelAll() {
+        ArrayList<String> keys;
+        synchronized (this) {
+            keys = new ArrayList<>(running.keySet());
+        }
+        keys.forEach(this::cancel);
+    }
+
+    private synchronized void release(Job job) {
+        running.remove(job.key, job);
+    }
+
+    /** 一个运行中的任务，也是传给各计算的 Progress。 */
+    final class Job implements Progress {
+        private final String key;
+        private final Object args;
+        private final Callbacks<?> callbacks;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean finished = new AtomicBoolean();
+        private volatile boolean cancelled;
+        private volatile double fraction = -1;
+        private volatile String partial;
+        private String delivered;
+        private Thread worker;
+
+        private Job(String key, Object args, Callbacks<?> callbacks) {
+            this.key = key;
+            this.args = args;
+            this.callbacks = callbacks;
+        }
+
+        boolean isCancelled() {
+            return cancelled;
+        }
+
+        /** 已取消时抛出 CancellationException。 */
+        void checkpoint() {
+            if (cancelled) {
+                throw new CancellationException();
+            }
+        }
+
+        @Override
+        public void report(long done, long total) {
+            checkpoint();
+            fraction = total > 0 ? Math.min(1, (double) done / total) : -1;
+            post();
+        }
+
+        /** 发布到目前为止的中间结果，界面只显示最新的一份。 */
+        void publish(String partial) {
+            checkpoint();
+            this.partial = partial;
+            post();
+        }
+
+        /** 界面线程还没取走上一次更新时不再排队，取走时读取最新的进度和中间结果。 */
+        private void post() {
+            if (scheduled.compareAndSet(false, true)) {
+                ui.execute(() -> {
+                    scheduled.set(false);
+                    if (finished.get()) {
+                        return;
+                    }
+                    String latest = partial;
+                    callbacks.progress(fraction, latest == delivered ? null : latest);
+                    delivered = latest;
+                });
+            }
+        }
+
+        private <T> void run(Work<T> work, Callbacks<T> callbacks) {
+            synchronized (this) {
+                if (cancelled) {
+                    return;
+                }
+                worker = Thread.currentThread();
+            }
+            try {
+                T result = work.run(this);
+                release(this);
+                if (finished.compareAndSet(false, true)) {
+                    ui.execute(() -> callbacks.succeeded(result));
+                }
+            } catch (Throwable e) {
+                release(this);
+                if (finished.compareAndSet(false, true)) {
+                    ui.execute(() -> callbacks.failed(e));
+                }
+            } finally {
+                synchronized (this) {
+                    worker = null;
+                    // 线程池中的线程会被复用，清掉取消时留下的中断标志
+                    Thread.interrupted();
+                }
+            }
+        }
+
+        private void cancel() {
+            // 先占住结果，被中断的工作线程抛出的 InterruptedException 不会再报给界面
+            boolean report = finished.compareAndSet(false, true);
+            synchronized (this) {
+                cancelled = true;
+                if (worker != null) {
+                    worker.interrupt();
+                }
+            }
+            if (report) {
+                ui.execute(() -> callbacks.failed(new CancellationException()));
+            }
+        }
+    }
+}
@@ -0,0 +1,139 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+public class BackgroundJobsTest {
+    private final Executor thread = r -> Thread.ofVirtual().start(r);
+
+    /** 把回调记录到队列中，供测试线程等待。 */
+    private static final class Recorder implements BackgroundJobs.Callbacks<String> {
+        final BlockingQueue<Object> outcomes = new ArrayBlockingQueue<>(4);
+        final List<String> partials = new ArrayList<>();
+        double fraction = Double.NaN;
+
+        @Override
+        public void progress(double fraction, String partial) {
+            this.fraction = fraction;
+            if (partial != null) {
+                partials.add(partial);
+            }
+        }
+
+        @Override
+        public void succeeded(String result) {
+            outcomes.add(result);
+        }
+
+        @Override
+        public void failed(Throwable error) {
+            outcomes.add(error);
+        }
+    }
+
+    @Test
+    public void testDuplicateRequestsAreCoalescedAndOthersRejected() throws Exception {
+        BackgroundJobs jobs = new BackgroundJobs(Runnable::run);
+        CountDownLatch release = new CountDownLatch(1);
+        Recorder recorder = new Recorder();
+        assertEquals(BackgroundJobs.Submission.STARTED, jobs.submit("path", "a b", thread, job -> {
+            release.await();
+            return "done";
+        }, recorder));
+        assertEquals(BackgroundJobs.Submission.COALESCED, jobs.submit("path", "a b", thread, job -> "again", recorder));
+        assertEquals(BackgroundJobs.Submission.REJECTED, jobs.submit("path", "a c", thread, job -> "other", recorder));
+        // 不同面板的操作互不影响
+        Recorder other = new Recorder();
+        assertEquals(BackgroundJobs.Submission.STARTED, jobs.submit("walk", "a b", thread, job -> "walk", other));
+        assertEquals("walk", other.outcomes.poll(5, TimeUnit.SECONDS));
+
+        release.countDown();
+        assertEquals("done", recorder.outcomes.poll(5, TimeUnit.SECONDS));
+        assertNull(recorder.outcomes.poll(100, TimeUnit.MILLISECONDS));
+        assertFalse(jobs.isRunning("path"));
+        assertEquals(BackgroundJobs.Submission.STARTED, jobs.submit("path", "a c", thread, job -> "other", recorder));
+        assertEquals("other", recorder.outcomes.poll(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testCancelStopsWorkAndReleasesKey() throws Exception {
+        BackgroundJobs jobs = new BackgroundJobs(Runnable::run);
+        Recorder recorder = new Recorder();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch stopped = new CountDownLatch(1);
+        jobs.submit("pagerank", 0.85, thread, job -> {
+            started.countDown();
+            try {
+                // 像长时间的计算一样不断报告进度，取消后 report 抛出 CancellationException
+                for (long i = 0; ; i++) {
+                    job.report(i, Long.MAX_VALUE);
+                }
+            } finally {
+                stopped.countDown();
+            }
+        }, recorder);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertTrue(jobs.cancel("pagerank"));
+        assertInstanceOf(CancellationException.class, recorder.outcomes.poll(5, TimeUnit.SECONDS));
+        assertFalse(jobs.isRunning("pagerank"));
+        assertTrue(stopped.await(5, TimeUnit.SECONDS));
+        assertNull(recorder.outcomes.poll(100, TimeUnit.MILLISECONDS));
+        assertFalse(jobs.cancel("pagerank"));
+
+        // 阻塞等待的任务被中断
+        CountDownLatch never = new CountDownLatch(1);
+        jobs.submit("graph", "", thread, job -> {
+            never.await();
+            return "unreachable";
+        }, recorder);
+        jobs.cancel("graph");
+        assertInstanceOf(CancellationException.class, recorder.outcomes.poll(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testProgressUpdatesAreCoalesced() throws Exception {
+        List<Runnable> uiQueue = new ArrayList<>();
+        BackgroundJobs jobs = new BackgroundJobs(r -> {
+            synchronized (uiQueue) {
+                uiQueue.add(r);
+            }
+        });
+        Recorder recorder = new Recorder();
+        CountDownLatch reported = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        jobs.submit("walk", 100, thread, job -> {
+            for (int i = 1; i <= 1000; i++) {
+                job.report(i, 2000);
+            }
+            job.publish("first");
+            job.publish("second");
+            reported.countDown();
+            release.await();
+            return "done";
+        }, recorder);
+        assertTrue(reported.await(5, TimeUnit.SECONDS));
+        synchronized (uiQueue) {
+            // 1000 次报告只排队一次界面更新，且取到的是最新的进度与中间结果
+            assertEquals(1, uiQueue.size());
+            uiQueue.removeFirst().run();
+        }
+        assertEquals(0.5, recorder.fraction, 1e-12);
+        assertEquals(List.of("second"), recorder.partials);
+        release.countDown();
+        while (recorder.outcomes.isEmpty()) {
+            synchronized (uiQueue) {
+                uiQueue.forEach(Runnable::run);
+                uiQueue.clear();
+            }
+            Thread.sleep(1);
+        }
+        assertEquals("done", recorder.outcomes.take());
+    }
+}
@@ -0,0 +1,167 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+/**
+ * 无界面的批量查询：从脚本逐行读取命令，对同一个只读的图并发求值，按脚本顺序输出结果。
+ * 每条命令的输出以一行 "> 命令" 开头，后面是与交互菜单相同的结果文本。支持的命令：
+ * <pre>
+ *   bridge word1 word2          桥接词
+ *   generate 任意文本            按桥接词改写文本
+ *   path word1 word2 [k]         最短路径；给出 k 时输出前 k 条
+ *   pagerank [d] [k]             分数最高的 k 个词（默认 d = 0.85，k = 10）
+ *   walk                         一条随机游走
+ * </pre>
+ * 空行与以 # 开头的行被忽略。脚本按 BATCH_SIZE 行分批：一批在 fork-join 线程池上并行求值时，
+ * 主线程同时写出上一批的结果并读入下一批。每行的随机数生成器由同一个根生成器按行号顺序 split，
+ * 给定种子时输出与线程调度无关，可以在 CI 中直接比对。
+ */
+final class BatchMode {
+    static final int BATCH_SIZE = 4096;
+    private static final int DEFAULT_TOP = 10;
+
+    private final WordGraph graph;
+    private final Map<Double, double[]> rankings = new ConcurrentHashMap<>();
+
+    BatchMode(WordGraph graph) {
+        this.graph = graph;
+    }
+
+    /** 执行整个脚本，返回执行的命令数。 */
+    long run(BufferedReader script, Writer out, long seed) throws IOException {
+        SplittableRandom root = new SplittableRandom(seed);
+        long commands = 0;
+        CompletableFuture<String[]> pending = null;
+        while (true) {
+            List<String> batch = read(script);
+            CompletableFuture<String[]> next = null;
+            if (!batch.isEmpty()) {
+                SplittableRandom[] randoms = new SplittableRandom[batch.size()];
+                for (int i = 0; i < randoms.length; i++) {
+                    randoms[i] = root.split();
+                }
+                next = CompletableFuture.supplyAsync(() -> evaluate(batch, randoms));
+                commands += batch.size();
+            }
+            if (pending != null) {
+                write(pending.join(), out);
+            }
+            if (next == null) {
+                break;
+            }
+            pending = next;
+        }
+        out.flush();
+        return commands;
+    }
+
+    /** 读取下一批命令，跳过空行与注释；脚本结束时返回空表。 */
+    private static List<String> read(BufferedReader script) throws IOException {
+        List<String> batch = new ArrayList<>(BATCH_SIZE);
+        String line;
+        while (batch.size() < BATCH_SIZE && (line = script.readLine()) != null) {
+            line = line.strip();
+            if (!line.isEmpty() && !line.startsWith("#")) {
+                batch.add(line);
+            }
+        }
+        return batch;
+    }
+
+    private String[] evaluate(List<String> batch, SplittableRandom[] randoms) {
+        String[] results = new String[batch.size()];
+        IntStream.range(0, results.length).parallel()
+                .forEach(i -> results[i] = "> " + batch.get(i) + "\n" + execute(batch.get(i), randoms[i]));
+        return results;
+    }
+
+    private static void write(String[] results, Writer out) throws IOException {
+        for (String result : results) {
+            out.write(result);
+            out.write('\n');
+        }
+    }
+
+    /** 执行一条命令，返回结果文本；命令格式不对时返回用法说明，执行出错时返回错误信息。 */
+    String execute(String command, SplittableRandom random) {
+        String[] parts = command.split("\\s+");
+        String name = parts[0].toLowerCase(Locale.ROOT);
+        try {
+            return switch (name) {
+                case "bridge" -> parts.length == 3
+                        ? GraphQueries.bridgeWords(graph, word(parts[1]), word(parts[2]))
+                        : "用法：bridge <word1> <word2>";
+                case "generate" -> parts.length >= 2
+                        ? GraphQueries.generateNewText(graph, command.substring(parts[0].length()).strip(), random)
+                        : "用法：generate <文本>";
+                case "path" -> switch (parts.length) {
+                    case 3 -> GraphQueries.shortestPath(graph, word(parts[1]), word(parts[2]));
+                    case 4 -> GraphQueries.kShortestPaths(graph, word(parts[1]), word(parts[2]), positive(parts[3]));
+                    default -> "用法：path <word1> <word2> [k]";
+                };
+                case "pagerank" -> parts.length <= 3
+                        ? pageRank(parts.length > 1 ? damping(parts[1]) : 0.85,
+                        parts.length > 2 ? positive(parts[2]) : DEFAULT_TOP)
+                        : "用法：pagerank [d] [k]";
+                case "walk" -> parts.length == 1 ? GraphQueries.randomWalk(graph, random) : "用法：walk";
+                default -> "未知命令：" + parts[0];
+            };
+        } catch (NumberFormatException e) {
+            return "参数错误：" + command;
+        } catch (RuntimeException e) {
+            // 一条命令出错只影响这一行的输出，不中断整个脚本
+            return "执行失败：" + e;
+        }
+    }
+
+    /**
+     * 同一阻尼系数的分数在整个脚本中只保留一份，每条命令用 TopK 挑出前 k 个，O(V log k)。PageRank 本身在 fork-join 线程池上并行，
+     * 不能放在 computeIfAbsent 里计算（持有桶锁的线程等待的任务可能正排在被锁挡住的工作线程上），
+     * 所以第一批中可能有几个线程同时算出同样的结果，只保留先放入的那份。
+     */
+    private String pageRank(double d, int k) {
+        double[] scores = rankings.get(d);
+        if (scores == null) {
+            double[] computed = PageRank.compute(graph, PageRank.Options.of(d)).scores();
+            double[] previous = rankings.putIfAbsent(d, computed);
+            scores = previous != null ? previous : computed;
+        }
+        int[] top = TopK.of(scores, k);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < top.length; i++) {
+            if (i > 0) {
+                sb.append('\n');
+            }
+            sb.append(String.format(Locale.ROOT, "%-15s : %.6f", graph.word(top[i]), scores[top[i]]));
+        }
+        return sb.toString();
+    }
+
+    private static String word(String token) {
+        return token.toLowerCase(Locale.ROOT);
+    }
+
+    private static int positive(String token) {
+        int value = Integer.parseInt(token);
+        if (value < 1) {
+            throw new NumberFormatException(token);
+        }
+        return value;
+    }
+
+    private static double damping(String token) {
+        double d = Double.parseDouble(token);
+        if (d < 0 || d > 1) {
+            throw new NumberFormatException(token);
+        }
+        return d;
+    }
+}
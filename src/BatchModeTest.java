@@ -0,0 +1,74 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+public class BatchModeTest {
+
+    private WordGraph graph(String content) throws Exception {
+        Path tempFile = Files.createTempFile("graph_input_" + UUID.randomUUID(), ".txt");
+        Files.writeString(tempFile, content);
+        return GraphLoader.load(tempFile);
+    }
+
+    private String run(BatchMode batch, String script, long seed) throws Exception {
+        StringWriter out = new StringWriter();
+        batch.run(new BufferedReader(new StringReader(script)), out, seed);
+        return out.toString();
+    }
+
+    @Test
+    public void testOutputsMatchQueriesInScriptOrder() throws Exception {
+        WordGraph g = graph("the cat sat on the mat and the dog sat on the log");
+        BatchMode batch = new BatchMode(g);
+        String out = run(batch, "# comment\nbridge the sat\n\npath the log\nPATH cat dog 2\nbogus\npath cat\n", 1);
+        assertEquals("> bridge the sat\n" + GraphQueries.bridgeWords(g, "the", "sat") + "\n"
+                + "> path the log\n" + GraphQueries.shortestPath(g, "the", "log") + "\n"
+                + "> PATH cat dog 2\n" + GraphQueries.kShortestPaths(g, "cat", "dog", 2) + "\n"
+                + "> bogus\n未知命令：bogus\n"
+                + "> path cat\n用法：path <word1> <word2> [k]\n", out);
+    }
+
+    @Test
+    public void testPunctuationOnlyTextDoesNotStopTheScript() throws Exception {
+        WordGraph g = graph("the cat sat on the mat");
+        String out = run(new BatchMode(g), "generate !!!\nbridge the sat\n", 1);
+        assertEquals("> generate !!!\n\n> bridge the sat\n" + GraphQueries.bridgeWords(g, "the", "sat") + "\n", out);
+    }
+
+    @Test
+    public void testRandomCommandsAreReproducibleAcrossBatches() throws Exception {
+        WordGraph g = graph("a b c a c b d a b e a d c e b a e d");
+        StringBuilder script = new StringBuilder();
+        for (int i = 0; i < BatchMode.BATCH_SIZE + 100; i++) {
+            script.append(i % 2 == 0 ? "walk\n" : "generate a c b e\n");
+        }
+        String first = run(new BatchMode(g), script.toString(), 42);
+        assertEquals(first, run(new BatchMode(g), script.toString(), 42));
+        String[] lines = first.split("\n");
+        assertEquals(2 * (BatchMode.BATCH_SIZE + 100), lines.length);
+        for (int i = 0; i < lines.length; i += 2) {
+            assertEquals(i % 4 == 0 ? "> walk" : "> generate a c b e", lines[i]);
+        }
+    }
+
+    @Test
+    public void testPageRankListsTopWords() throws Exception {
+        WordGraph g = graph("a b c a b d a");
+        BatchMode batch = new BatchMode(g);
+        double[] scores = PageRank.compute(g, PageRank.Options.of(0.85)).scores();
+        String out = batch.execute("pagerank 0.85 2", new SplittableRandom(0));
+        String[] lines = out.split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("a "));
+        assertTrue(lines[0].endsWith(String.format(java.util.Locale.ROOT, "%.6f", scores[g.id("a")])));
+        assertEquals(out, batch.execute("pagerank 0.85 2", new SplittableRandom(1)));
+        assertEquals("参数错误：pagerank 2", batch.execute("pagerank 2", new SplittableRandom(0)));
+    }
+}
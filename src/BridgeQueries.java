@@ -0,0 +1,111 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 批量桥接词查询：输入 (word1, word2) 流，按原顺序输出结构化结果，不拼接英文句子。
+ * 查询按 BATCH_SIZE 分批读取，内存只与批大小有关；每批内按 word1 分组，
+ * 同一个 word1 的查询共用一次 ID 解析和同一段出边行，各组分散到 fork-join 线程池上并行求交集。
+ */
+final class BridgeQueries {
+    static final int BATCH_SIZE = 1 << 16;
+
+    private BridgeQueries() {
+    }
+
+    record Query(String word1, String word2) {
+    }
+
+    /** 一次查询的结果；ids 为桥接词 ID（升序），任一单词不在图中或没有桥接词时为空数组。 */
+    record Result(Query query, int[] ids) {
+        List<String> words(WordGraph graph) {
+            List<String> words = new ArrayList<>(ids.length);
+            for (int id : ids) {
+                words.add(graph.word(id));
+            }
+            return words;
+        }
+    }
+
+    static Stream<Result> query(WordGraph graph, Stream<Query> queries) {
+        Iterator<Query> source = queries.iterator();
+        Iterator<List<Result>> batches = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return source.hasNext();
+            }
+
+            @Override
+            public List<Result> next() {
+                if (!source.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                List<Query> batch = new ArrayList<>(BATCH_SIZE);
+                while (source.hasNext() && batch.size() < BATCH_SIZE) {
+                    batch.add(source.next());
+                }
+                return query(graph, batch);
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(batches, Spliterator.ORDERED), false)
+                .flatMap(List::stream)
+                .onClose(queries::close);
+    }
+
+    static List<Result> query(WordGraph graph, List<Query> batch) {
+        int n = batch.size();
+        int[] from = new int[n];
+        long[] order = new long[n];
+        for (int i = 0; i < n; i++) {
+            from[i] = graph.id(batch.get(i).word1());
+            // 高 32 位为 word1 的 ID，低 32 位为原下标：排序后同一 word1 的查询相邻
+            order[i] = ((long) from[i] << 32) | i;
+        }
+        Arrays.sort(order);
+
+        int[] groupStarts = groupStarts(order, ForkJoinPool.commonPool().getParallelism() * 4);
+        Result[] results = new Result[n];
+        IntStream.range(0, groupStarts.length - 1).parallel().forEach(g -> {
+            String lastWord2 = null;
+            int w = -1;
+            for (int k = groupStarts[g]; k < groupStarts[g + 1]; k++) {
+                int i = (int) order[k];
+                Query q = batch.get(i);
+                if (!q.word2().equals(lastWord2)) {
+                    lastWord2 = q.word2();
+                    w = graph.id(lastWord2);
+                }
+                results[i] = new Result(q, graph.bridges(from[i], w));
+            }
+        });
+        return Arrays.asList(results);
+    }
+
+    /** 把排序后的查询切成约 segments 段，切分点只落在 word1 变化处，保证同组不跨段。 */
+    private static int[] groupStarts(long[] order, int segments) {
+        int n = order.length;
+        int target = Math.max(1, n / Math.max(1, segments));
+        List<Integer> starts = new ArrayList<>();
+        starts.add(0);
+        int k = target;
+        while (k < n) {
+            while (k < n && (order[k] >> 32) == (order[k - 1] >> 32)) {
+                k++;
+            }
+            if (k < n) {
+                starts.add(k);
+            }
+            k += target;
+        }
+        starts.add(n);
+        return starts.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
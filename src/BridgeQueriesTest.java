@@ -0,0 +1,57 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class BridgeQueriesTest {
+    private static WordGraph graph;
+
+    @BeforeAll
+    public static void setup() throws Exception {
+        graph = GraphLoader.loadSequential(Path.of("Cursed Be The Treasure.txt"));
+    }
+
+    // 逐个枚举 out(u) 并检查 mid -> w 的朴素做法，作为对照
+    private List<String> naiveBridges(String word1, String word2) {
+        List<String> result = new ArrayList<>();
+        int u = graph.id(word1);
+        int w = graph.id(word2);
+        if (u < 0 || w < 0) {
+            return result;
+        }
+        for (int i = graph.outStart(u); i < graph.outEnd(u); i++) {
+            if (graph.hasEdge(graph.target(i), w)) {
+                result.add(graph.word(graph.target(i)));
+            }
+        }
+        return result;
+    }
+
+    @Test
+    public void testBatchMatchesSingleQueriesInInputOrder() {
+        Random rnd = new Random(42);
+        List<BridgeQueries.Query> queries = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            // 大量重复的 word1，覆盖分组复用；偶尔混入不存在的单词
+            String w1 = i % 97 == 0 ? "nosuchword" : graph.word(rnd.nextInt(50));
+            String w2 = graph.word(rnd.nextInt(graph.size()));
+            queries.add(new BridgeQueries.Query(w1, w2));
+        }
+        List<BridgeQueries.Result> results = BridgeQueries.query(graph, queries.stream()).toList();
+        assertEquals(queries.size(), results.size());
+        for (int i = 0; i < queries.size(); i++) {
+            BridgeQueries.Result r = results.get(i);
+            assertSame(queries.get(i), r.query());
+            assertEquals(naiveBridges(r.query().word1(), r.query().word2()), r.words(graph));
+        }
+    }
+
+    @Test
+    public void testEmptyBatch() {
+        assertEquals(0, BridgeQueries.query(graph, new ArrayList<BridgeQueries.Query>().stream()).count());
+    }
+}
@@ -3,6 +3,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -29,6 +30,11 @@ public class CalcShortestPathWhiteBoxTest {
 
         parseMethod = Lab1FX.class.getDeclaredMethod("parseTextToGraph", String.class);
         parseMethod.setAccessible(true);
+
+        // 清空静态图：丢弃已读入的文件，parseTextToGraph 不再累加到旧图上
+        Field liveField = Lab1FX.class.getDeclaredField("live");
+        liveField.setAccessible(true);
+        liveField.set(null, null);
     }
 
     // Path 1: word1 not in graph
@@ -50,6 +56,8 @@ public class CalcShortestPathWhiteBoxTest {
     // Path 3: shortest path exists
     @Test
     public void test_P3_shortestPathExists() throws Exception {
+        // 两个文件累加：a -> b 的权重为 2
+        prepareGraph("a a a b");
         prepareGraph("a b b c c d");
         String result = invoke("a", "d");
         assertTrue(result.contains("Shortest path: a -> b -> c -> d"));
@@ -0,0 +1,221 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * 确定性的合成语料：词频服从 Zipf 分布（第 r 个词的概率正比于 1 / r^s），用于测试远大于自带语料的输入。
+ * 词表中第 r 个词由 r 的百进制各位映射为“辅音+元音”音节拼成，互不相同，越常见的词越短。
+ * 每句 MIN_SENTENCE 到 MAX_SENTENCE 个词，句首大写、句末加句号、每句一行。
+ * 词按 Vose 别名表 O(1) 抽取，文本直接写入字节缓冲区，速度受磁盘限制；
+ * 相同的选项总是产生相同的字节，较小的语料恰好是同一种子下较大语料的前缀（在句末截断）。
+ */
+final class CorpusGenerator {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int MIN_SENTENCE = 5;
+    private static final int MAX_SENTENCE = 20;
+    private static final String CONSONANTS = "bcdfghjklmnprstvwxyz";
+    private static final String VOWELS = "aeiou";
+
+    private CorpusGenerator() {
+    }
+
+    /** 词表大小、Zipf 指数 s、目标字节数（写完超过它的那一句为止）与随机种子。 */
+    record Options(int vocabulary, double exponent, long bytes, long seed) {
+        Options {
+            if (vocabulary < 1) {
+                throw new IllegalArgumentException("词表大小必须为正数");
+            }
+            if (exponent < 0) {
+                throw new IllegalArgumentException("Zipf 指数不能为负数");
+            }
+            if (bytes < 0) {
+                throw new IllegalArgumentException("语料大小不能为负数");
+            }
+        }
+
+        static Options of(long bytes) {
+            return new Options(50_000, 1.0, bytes, 42);
+        }
+
+        Options withBytes(long bytes) {
+            return new Options(vocabulary, exponent, bytes, seed);
+        }
+    }
+
+    /** 实际写出的字节数、词数与句数。 */
+    record Stats(long bytes, long words, long sentences) {
+    }
+
+    /** 按 Zipf 分布抽取词的排名（0 为最常见的词）。 */
+    static final class Sampler {
+        private final double[] prob;
+        private final int[] alias;
+
+        Sampler(int vocabulary, double exponent) {
+            int n = vocabulary;
+            double[] scaled = new double[n];
+            double total = 0;
+            for (int r = 0; r < n; r++) {
+                scaled[r] = Math.pow(r + 1, -exponent);
+                total += scaled[r];
+            }
+            prob = new double[n];
+            alias = new int[n];
+            int[] small = new int[n];
+            int[] large = new int[n];
+            int smallCount = 0;
+            int largeCount = 0;
+            for (int r = 0; r < n; r++) {
+                scaled[r] = scaled[r] * n / total;
+                if (scaled[r] < 1) {
+                    small[smallCount++] = r;
+                } else {
+                    large[largeCount++] = r;
+                }
+            }
+            while (smallCount > 0 && largeCount > 0) {
+                int s = small[--smallCount];
+                int l = large[--largeCount];
+                prob[s] = scaled[s];
+                alias[s] = l;
+                scaled[l] -= 1 - scaled[s];
+                if (scaled[l] < 1) {
+                    small[smallCount++] = l;
+                } else {
+                    large[largeCount++] = l;
+                }
+            }
+            // 剩下的槽位因舍入误差而接近满额，直接取自己
+            while (largeCount > 0) {
+                prob[large[--largeCount]] = 1;
+            }
+            while (smallCount > 0) {
+                prob[small[--smallCount]] = 1;
+            }
+        }
+
+        int next(SplittableRandom random) {
+            double x = random.nextDouble() * prob.length;
+            int slot = (int) x;
+            return x - slot < prob[slot] ? slot : alias[slot];
+        }
+    }
+
+    /** 排名为 rank 的词。 */
+    static String word(int rank) {
+        return new String(wordBytes(rank), StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] wordBytes(int rank) {
+        // 双射百进制：0..99 为一个音节，100..10099 为两个音节，依此类推
+        int syllables = 1;
+        long first = 0;
+        long count = 100;
+        while (rank >= first + count) {
+            first += count;
+            count *= 100;
+            syllables++;
+        }
+        long digits = rank - first;
+        byte[] bytes = new byte[syllables * 2];
+        for (int i = syllables - 1; i >= 0; i--) {
+            int syllable = (int) (digits % 100);
+            digits /= 100;
+            bytes[2 * i] = (byte) CONSONANTS.charAt(syllable / VOWELS.length());
+            bytes[2 * i + 1] = (byte) VOWELS.charAt(syllable % VOWELS.length());
+        }
+        return bytes;
+    }
+
+    static Stats write(Options options, Path output) throws IOException {
+        try (OutputStream out = Files.newOutputStream(output)) {
+            return write(options, out);
+        }
+    }
+
+    static Stats write(Options options, OutputStream out) throws IOException {
+        byte[][] words = new byte[options.vocabulary()][];
+        for (int r = 0; r < words.length; r++) {
+            words[r] = wordBytes(r);
+        }
+        Sampler sampler = new Sampler(options.vocabulary(), options.exponent());
+        SplittableRandom random = new SplittableRandom(options.seed());
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int used = 0;
+        long bytes = 0;
+        long wordCount = 0;
+        long sentences = 0;
+        while (bytes < options.bytes()) {
+            int length = random.nextInt(MIN_SENTENCE, MAX_SENTENCE + 1);
+            for (int i = 0; i < length; i++) {
+                byte[] word = words[sampler.next(random)];
+                if (used + word.length + 3 > buffer.length) {
+                    out.write(buffer, 0, used);
+                    used = 0;
+                }
+                if (i > 0) {
+                    buffer[used++] = ' ';
+                }
+                System.arraycopy(word, 0, buffer, used, word.length);
+                if (i == 0) {
+                    buffer[used] -= 'a' - 'A';
+                }
+                used += word.length;
+                bytes += word.length + (i > 0 ? 1 : 0);
+            }
+            buffer[used++] = '.';
+            buffer[used++] = '\n';
+            bytes += 2;
+            wordCount += length;
+            sentences++;
+        }
+        out.write(buffer, 0, used);
+        return new Stats(bytes, wordCount, sentences);
+    }
+
+    /** 解析 512K、64M、2G 这样的大小（1K = 1024 字节），也接受不带单位的字节数。 */
+    static long parseSize(String text) {
+        String s = text.trim().toUpperCase(Locale.ROOT);
+        long unit = 1;
+        if (s.endsWith("B")) {
+            s = s.substring(0, s.length() - 1);
+        }
+        if (!s.isEmpty()) {
+            switch (s.charAt(s.length() - 1)) {
+                case 'K' -> unit = 1L << 10;
+                case 'M' -> unit = 1L << 20;
+                case 'G' -> unit = 1L << 30;
+                case 'T' -> unit = 1L << 40;
+                default -> unit = 1;
+            }
+            if (unit > 1) {
+                s = s.substring(0, s.length() - 1);
+            }
+        }
+        try {
+            double value = Double.parseDouble(s);
+            if (value < 0 || !Double.isFinite(value)) {
+                throw new NumberFormatException();
+            }
+            return (long) (value * unit);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("无法识别的大小：" + text);
+        }
+    }
+
+    /** 与 parseSize 相反，用于文件名和报告：整数个单位时写作 64M，否则写字节数。 */
+    static String formatSize(long bytes) {
+        String[] units = {"T", "G", "M", "K"};
+        for (int i = 0; i < units.length; i++) {
+            long unit = 1L << (10 * (units.length - i));
+            if (bytes >= unit && bytes % unit == 0) {
+                return bytes / unit + units[i];
+            }
+        }
+        return Long.toString(bytes);
+    }
+}
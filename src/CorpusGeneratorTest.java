@@ -0,0 +1,93 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+public class CorpusGeneratorTest {
+
+    private byte[] generate(CorpusGenerator.Options options) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CorpusGenerator.Stats stats = CorpusGenerator.write(options, out);
+        assertEquals(out.size(), stats.bytes());
+        return out.toByteArray();
+    }
+
+    @Test
+    public void testOutputIsDeterministicAndSmallerSizesArePrefixes() throws Exception {
+        CorpusGenerator.Options options = new CorpusGenerator.Options(1000, 1.1, 200_000, 7);
+        byte[] large = generate(options);
+        assertArrayEquals(large, generate(options));
+        assertTrue(large.length >= 200_000);
+
+        byte[] small = generate(options.withBytes(50_000));
+        assertTrue(small.length >= 50_000 && small.length < 51_000);
+        assertEquals(new String(small, StandardCharsets.US_ASCII),
+                new String(large, 0, small.length, StandardCharsets.US_ASCII));
+        assertFalse(new String(large, StandardCharsets.US_ASCII)
+                .equals(new String(generate(new CorpusGenerator.Options(1000, 1.1, 200_000, 8)), StandardCharsets.US_ASCII)));
+    }
+
+    @Test
+    public void testWordFrequenciesFollowZipf() throws Exception {
+        String text = new String(generate(new CorpusGenerator.Options(500, 1.0, 2_000_000, 1)), StandardCharsets.US_ASCII);
+        Map<String, Integer> counts = new HashMap<>();
+        long total = 0;
+        for (String token : text.toLowerCase().split("[^a-z]+")) {
+            if (!token.isEmpty()) {
+                counts.merge(token, 1, Integer::sum);
+                total++;
+            }
+        }
+        assertTrue(counts.size() <= 500);
+        double harmonic = 0;
+        for (int r = 1; r <= 500; r++) {
+            harmonic += 1.0 / r;
+        }
+        // 第 r 个词的期望频率为 1 / (r * H_500)
+        for (int rank : new int[]{0, 1, 9, 99}) {
+            double expected = total / ((rank + 1) * harmonic);
+            int actual = counts.getOrDefault(CorpusGenerator.word(rank), 0);
+            assertEquals(expected, actual, expected * 0.1, "rank " + rank);
+        }
+    }
+
+    @Test
+    public void testWordsAreDistinctAndParseAsSingleTokens() throws Exception {
+        Set<String> words = new HashSet<>();
+        for (int r = 0; r < 20_000; r++) {
+            String word = CorpusGenerator.word(r);
+            assertTrue(word.matches("[a-z]+"), word);
+            assertTrue(words.add(word), word);
+        }
+        assertEquals(2, CorpusGenerator.word(99).length());
+        assertEquals(4, CorpusGenerator.word(100).length());
+
+        Path file = Files.createTempFile("corpus_" + UUID.randomUUID(), ".txt");
+        CorpusGenerator.Stats stats = CorpusGenerator.write(new CorpusGenerator.Options(300, 1.0, 30_000, 3), file);
+        WordGraph graph = GraphLoader.load(file);
+        assertEquals(stats.bytes(), Files.size(file));
+        assertTrue(graph.size() <= 300 && graph.size() > 200);
+        assertTrue(graph.contains(CorpusGenerator.word(0)));
+    }
+
+    @Test
+    public void testParseAndFormatSize() {
+        assertEquals(512L << 10, CorpusGenerator.parseSize("512K"));
+        assertEquals(64L << 20, CorpusGenerator.parseSize("64mb"));
+        assertEquals(3L << 29, CorpusGenerator.parseSize("1.5G"));
+        assertEquals(1234, CorpusGenerator.parseSize("1234"));
+        assertThrows(IllegalArgumentException.class, () -> CorpusGenerator.parseSize("big"));
+        assertThrows(IllegalArgumentException.class, () -> CorpusGenerator.parseSize("-1M"));
+        assertEquals("64M", CorpusGenerator.formatSize(64L << 20));
+        assertEquals("1536M", CorpusGenerator.formatSize(3L << 29));
+        assertEquals("1000", CorpusGenerator.formatSize(1000));
+    }
+}
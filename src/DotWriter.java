@@ -0,0 +1,239 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * 流式 DOT 导出：逐条边直接写入带缓冲的文件通道，不在内存中拼出整个文档。
+ * 可选的剪枝让大图也能在几秒内布局完成：
+ * 先按 center / hops 取某个词的 k 跳邻域（出边入边都算一跳），
+ * 再在剩下的词中按 PageRank 或度数（入度 + 出度）保留前 top 个（PageRank 取自调用方的热启动缓存），
+ * 最后只输出两端都被保留、且权重不小于 minWeight 的边。
+ */
+final class DotWriter {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private DotWriter() {
+    }
+
+    enum Rank {
+        PAGERANK, DEGREE
+    }
+
+    /** top 为 0 表示不限节点数；center 为 null 表示不按邻域剪枝。 */
+    record Options(int top, Rank rank, int minWeight, String center, int hops) {
+        static final Options ALL = new Options(0, Rank.PAGERANK, 1, null, 0);
+
+        /**
+         * 解析形如 "top=100 rank=degree min=2 center=the hops=2" 的选项，未给出的项取 ALL 中的值；
+         * 只给 center 时 hops 默认为 1。空串返回 ALL。
+         */
+        static Options parse(String spec) {
+            int top = 0;
+            Rank rank = Rank.PAGERANK;
+            int minWeight = 1;
+            String center = null;
+            int hops = -1;
+            for (String item : spec.trim().split("\\s+")) {
+                if (item.isEmpty()) {
+                    continue;
+                }
+                int eq = item.indexOf('=');
+                if (eq < 0) {
+                    throw new IllegalArgumentException("选项格式应为 key=value：" + item);
+                }
+                String key = item.substring(0, eq).toLowerCase(Locale.ROOT);
+                String value = item.substring(eq + 1);
+                switch (key) {
+                    case "top" -> top = nonNegative(key, value);
+                    case "rank" -> rank = Rank.valueOf(value.toUpperCase(Locale.ROOT));
+                    case "min" -> minWeight = nonNegative(key, value);
+                    case "center" -> center = value.toLowerCase(Locale.ROOT);
+                    case "hops" -> hops = nonNegative(key, value);
+                    default -> throw new IllegalArgumentException("未知选项：" + key);
+                }
+            }
+            if (center == null) {
+                hops = 0;
+            } else if (hops < 0) {
+                hops = 1;
+            }
+            return new Options(top, rank, minWeight, center, hops);
+        }
+
+        boolean prunes() {
+            return top > 0 || minWeight > 1 || center != null;
+        }
+
+        private static int nonNegative(String key, String value) {
+            try {
+                int v = Integer.parseInt(value);
+                if (v >= 0) {
+                    return v;
+                }
+            } catch (NumberFormatException ignored) {
+                // 统一在下面报错
+            }
+            throw new IllegalArgumentException(key + " 必须是非负整数：" + value);
+        }
+    }
+
+    /** 写出的节点数与边数。 */
+    record Stats(int nodes, int edges) {
+    }
+
+    static Stats write(WordGraph graph, Options options, Path out) throws IOException {
+        return write(graph, options, out, Progress.NONE);
+    }
+
+    static Stats write(WordGraph graph, Options options, Path out, Progress progress) throws IOException {
+        return write(graph, options, new PageRank.WarmStart(), out, progress);
+    }
+
+    /** 每写完一行出边以 (已处理的节点数, 节点总数) 报告一次进度。 */
+    static Stats write(WordGraph graph, Options options, PageRank.WarmStart ranks, Path out, Progress progress)
+            throws IOException {
+        boolean[] keep = select(graph, options, ranks);
+        try (FileChannel channel = FileChannel.open(out, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+             Writer writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.US_ASCII), BUFFER_SIZE)) {
+            return write(graph, options, keep, writer, progress);
+        }
+    }
+
+    static Stats write(WordGraph graph, Options options, boolean[] keep, Writer writer) throws IOException {
+        return write(graph, options, keep, writer, Progress.NONE);
+    }
+
+    static Stats write(WordGraph graph, Options options, boolean[] keep, Writer writer, Progress progress)
+            throws IOException {
+        writer.write("digraph G {\n");
+        boolean[] emitted = new boolean[graph.size()];
+        int nodes = 0;
+        int edges = 0;
+        if (options.center() != null) {
+            // 中心词即使所有边都被剪掉也要出现在图中
+            int c = graph.id(options.center());
+            writer.write("    \"" + options.center() + "\" [style=bold];\n");
+            emitted[c] = true;
+            nodes++;
+        }
+        for (int u = 0; u < graph.size(); u++) {
+            if (!keep[u]) {
+                continue;
+            }
+            for (int i = graph.outStart(u); i < graph.outEnd(u); i++) {
+                int v = graph.target(i);
+                if (!keep[v] || graph.weight(i) < options.minWeight()) {
+                    continue;
+                }
+                writer.write("    \"");
+                writer.write(graph.word(u));
+                writer.write("\" -> \"");
+                writer.write(graph.word(v));
+                writer.write("\" [label=\"");
+                writer.write(Integer.toString(graph.weight(i)));
+                writer.write("\"];\n");
+                edges++;
+                nodes += mark(emitted, u) + mark(emitted, v);
+            }
+            progress.report(u + 1, graph.size());
+        }
+        writer.write("}\n");
+        return new Stats(nodes, edges);
+    }
+
+    private static int mark(boolean[] emitted, int v) {
+        if (emitted[v]) {
+            return 0;
+        }
+        emitted[v] = true;
+        return 1;
+    }
+
+    static boolean[] select(WordGraph graph, Options options) {
+        return select(graph, options, new PageRank.WarmStart());
+    }
+
+    /** 按选项计算保留的节点集合。 */
+    static boolean[] select(WordGraph graph, Options options, PageRank.WarmStart ranks) {
+        int n = graph.size();
+        boolean[] keep = new boolean[n];
+        if (options.center() != null) {
+            int c = graph.id(options.center());
+            if (c < 0) {
+                throw new IllegalArgumentException("No \"" + options.center() + "\" in the graph!");
+            }
+            neighborhood(graph, c, options.hops(), keep);
+        } else {
+            Arrays.fill(keep, true);
+        }
+        if (options.top() > 0) {
+            keepTop(graph, options, ranks, keep);
+        }
+        return keep;
+    }
+
+    private static void neighborhood(WordGraph graph, int center, int hops, boolean[] keep) {
+        int[] depth = new int[graph.size()];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        keep[center] = true;
+        queue.add(center);
+        while (!queue.isEmpty()) {
+            int u = queue.poll();
+            if (depth[u] == hops) {
+                continue;
+            }
+            for (int i = graph.outStart(u); i < graph.outEnd(u); i++) {
+                visit(graph.target(i), depth[u] + 1, keep, depth, queue);
+            }
+            for (int i = graph.inStart(u); i < graph.inEnd(u); i++) {
+                visit(graph.source(i), depth[u] + 1, keep, depth, queue);
+            }
+        }
+    }
+
+    private static void visit(int v, int d, boolean[] keep, int[] depth, ArrayDeque<Integer> queue) {
+        if (!keep[v]) {
+            keep[v] = true;
+            depth[v] = d;
+            queue.add(v);
+        }
+    }
+
+    /** 在已保留的节点中只留下得分最高的 top 个（同分按 ID，见 TopK），中心词始终保留。 */
+    private static void keepTop(WordGraph graph, Options options, PageRank.WarmStart ranks, boolean[] keep) {
+        int n = graph.size();
+        double[] s;
+        if (options.rank() == Rank.PAGERANK) {
+            s = ranks.compute(graph, PageRank.Options.of(0.85)).scores().clone();
+        } else {
+            s = new double[n];
+            for (int v = 0; v < n; v++) {
+                s[v] = graph.outDegree(v) + graph.inDegree(v);
+            }
+        }
+        int center = options.center() == null ? -1 : graph.id(options.center());
+        // 不在候选范围内的节点（邻域之外或中心词）分数置为负无穷，不会挤掉任何候选
+        int count = 0;
+        for (int v = 0; v < n; v++) {
+            if (keep[v] && v != center) {
+                count++;
+                keep[v] = false;
+            } else {
+                s[v] = Double.NEGATIVE_INFINITY;
+            }
+        }
+        int limit = Math.min(count, Math.max(0, options.top() - (center >= 0 ? 1 : 0)));
+        for (int v : TopK.of(s, limit)) {
+            keep[v] = true;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+public class DotWriterTest {
+
+    private WordGraph load(String content) throws Exception {
+        Path tempFile = Files.createTempFile("graph_input_" + UUID.randomUUID(), ".txt");
+        Files.writeString(tempFile, content);
+        return GraphLoader.loadSequential(tempFile);
+    }
+
+    private String dot(WordGraph g, String spec) throws Exception {
+        DotWriter.Options options = DotWriter.Options.parse(spec);
+        StringWriter out = new StringWriter();
+        DotWriter.write(g, options, DotWriter.select(g, options), out);
+        return out.toString();
+    }
+
+    @Test
+    public void testFullGraph() throws Exception {
+        WordGraph g = load("a b c a b d");
+        assertEquals("digraph G {\n"
+                + "    \"a\" -> \"b\" [label=\"2\"];\n"
+                + "    \"b\" -> \"c\" [label=\"1\"];\n"
+                + "    \"b\" -> \"d\" [label=\"1\"];\n"
+                + "    \"c\" -> \"a\" [label=\"1\"];\n"
+                + "}\n", dot(g, ""));
+    }
+
+    @Test
+    public void testPruning() throws Exception {
+        WordGraph g = load("a b c a b d e f g");
+        assertEquals("digraph G {\n    \"a\" -> \"b\" [label=\"2\"];\n}\n", dot(g, "min=2"));
+
+        // d 的一跳邻域：b -> d -> e
+        String hop = dot(g, "center=d");
+        assertTrue(hop.contains("\"d\" [style=bold]"));
+        assertTrue(hop.contains("\"b\" -> \"d\""));
+        assertTrue(hop.contains("\"d\" -> \"e\""));
+        assertFalse(hop.contains("\"a\""));
+        assertFalse(hop.contains("\"f\""));
+        assertTrue(dot(g, "center=d hops=2").contains("\"e\" -> \"f\""));
+
+        // b 的度数为 3，其余度数为 2 的词中取 ID 最小的 a
+        boolean[] keep = DotWriter.select(g, DotWriter.Options.parse("top=2 rank=degree"));
+        assertTrue(keep[g.id("a")] && keep[g.id("b")]);
+        assertEquals(2, count(keep));
+        assertEquals(3, count(DotWriter.select(g, DotWriter.Options.parse("top=3"))));
+    }
+
+    // 邻域内按 PageRank 取前 top 个（含中心词），与整表排序后截取的结果相同；热启动缓存中的分数被复用
+    @Test
+    public void testTopWithinNeighborhoodMatchesFullSort() throws Exception {
+        WordGraph g = GraphLoader.loadSequential(Path.of("Cursed Be The Treasure.txt"));
+        PageRank.WarmStart ranks = new PageRank.WarmStart();
+        double[] scores = ranks.compute(g, PageRank.Options.of(0.85)).scores();
+        DotWriter.Options options = DotWriter.Options.parse("center=the hops=1 top=40");
+        boolean[] keep = DotWriter.select(g, options, ranks);
+        boolean[] neighborhood = DotWriter.select(g, DotWriter.Options.parse("center=the hops=1"));
+        int center = g.id("the");
+        List<Integer> expected = new ArrayList<>();
+        for (int v = 0; v < g.size(); v++) {
+            if (neighborhood[v] && v != center) {
+                expected.add(v);
+            }
+        }
+        expected.sort((a, b) -> scores[a] != scores[b] ? Double.compare(scores[b], scores[a]) : Integer.compare(a, b));
+        boolean[] want = new boolean[g.size()];
+        want[center] = true;
+        expected.subList(0, 39).forEach(v -> want[v] = true);
+        assertArrayEquals(want, keep);
+    }
+
+    @Test
+    public void testWriteToFile() throws Exception {
+        WordGraph g = GraphLoader.loadSequential(Path.of("Cursed Be The Treasure.txt"));
+        Path out = Files.createTempFile("graph_" + UUID.randomUUID(), ".dot");
+        DotWriter.Stats full = DotWriter.write(g, DotWriter.Options.ALL, out);
+        assertEquals(g.edgeCount(), full.edges());
+        assertEquals(g.edgeCount() + 2, Files.readAllLines(out).size());
+        DotWriter.Stats pruned = DotWriter.write(g, DotWriter.Options.parse("top=50 min=3"), out);
+        assertTrue(pruned.nodes() <= 50 && pruned.edges() > 0);
+        assertEquals(pruned.edges() + 2, Files.readAllLines(out).size());
+    }
+
+    @Test
+    public void testBadOptions() throws Exception {
+        WordGraph g = load("a b");
+        assertThrows(IllegalArgumentException.class, () -> DotWriter.Options.parse("top=-1"));
+        assertThrows(IllegalArgumentException.class, () -> DotWriter.Options.parse("depth=2"));
+        assertThrows(IllegalArgumentException.class, () -> DotWriter.Options.parse("top"));
+        assertThrows(IllegalArgumentException.class, () -> DotWriter.select(g, DotWriter.Options.parse("center=zzz")));
+        assertFalse(DotWriter.Options.parse("  ").prunes());
+    }
+
+    private static int count(boolean[] keep) {
+        int c = 0;
+        for (boolean k : keep) {
+            c += k ? 1 : 0;
+        }
+        return c;
+    }
+}
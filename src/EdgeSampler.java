@@ -0,0 +1,111 @@
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.WeakHashMap;
+
+/**
+ * O(1) 的出边采样：均匀选择，或按边的出现次数加权选择。
+ * 加权时为每一行预先构建 Vose 别名表：行内每个槽位 i 保存阈值 prob[i] 与别名边 alias[i]，
+ * 采样时用一个随机数同时选出槽位和槽内位置，落在阈值以下取 i，否则取 alias[i]。
+ * 别名表只依赖于不可变的 WordGraph，按图实例弱引用缓存；采样器本身不引用图（由调用方传入），
+ * 图的版本退役后缓存项随之清除。别名表在锁外构建，并发构建同一张图时保留先放入的那份。
+ */
+final class EdgeSampler {
+    static final EdgeSampler UNIFORM = new EdgeSampler(null, null);
+
+    private static final Map<WordGraph, EdgeSampler> WEIGHTED = new WeakHashMap<>();
+
+    private final double[] prob;
+    private final int[] alias;
+
+    private EdgeSampler(double[] prob, int[] alias) {
+        this.prob = prob;
+        this.alias = alias;
+    }
+
+    static EdgeSampler weighted(WordGraph graph) {
+        EdgeSampler cached;
+        synchronized (WEIGHTED) {
+            cached = WEIGHTED.get(graph);
+        }
+        if (cached != null) {
+            return cached;
+        }
+        EdgeSampler built = buildAliasTables(graph);
+        synchronized (WEIGHTED) {
+            cached = WEIGHTED.putIfAbsent(graph, built);
+        }
+        return cached != null ? cached : built;
+    }
+
+    static EdgeSampler of(WordGraph graph, boolean weighted) {
+        return weighted ? weighted(graph) : UNIFORM;
+    }
+
+    /** 返回 u 的一条出边的 CSR 下标；u 必须有出边，graph 必须是创建本采样器时的图。 */
+    int next(WordGraph graph, int u, SplittableRandom random) {
+        int start = graph.outStart(u);
+        int degree = graph.outDegree(u);
+        if (prob == null) {
+            return start + random.nextInt(degree);
+        }
+        double x = random.nextDouble() * degree;
+        int slot = (int) x;
+        int i = start + slot;
+        return x - slot < prob[i] ? i : alias[i];
+    }
+
+    private static EdgeSampler buildAliasTables(WordGraph graph) {
+        int m = graph.edgeCount();
+        double[] prob = new double[m];
+        int[] alias = new int[m];
+        int maxDegree = 0;
+        for (int u = 0; u < graph.size(); u++) {
+            maxDegree = Math.max(maxDegree, graph.outDegree(u));
+        }
+        long[] scaled = new long[maxDegree];
+        int[] small = new int[maxDegree];
+        int[] large = new int[maxDegree];
+
+        for (int u = 0; u < graph.size(); u++) {
+            int start = graph.outStart(u);
+            int k = graph.outDegree(u);
+            long total = 0;
+            for (int j = 0; j < k; j++) {
+                total += graph.weight(start + j);
+            }
+            // 以 total 为单位的整数运算：槽位满额为 total，避免浮点误差累积
+            int smallCount = 0;
+            int largeCount = 0;
+            for (int j = 0; j < k; j++) {
+                scaled[j] = (long) graph.weight(start + j) * k;
+                if (scaled[j] < total) {
+                    small[smallCount++] = j;
+                } else {
+                    large[largeCount++] = j;
+                }
+            }
+            while (smallCount > 0 && largeCount > 0) {
+                int s = small[--smallCount];
+                int l = large[largeCount - 1];
+                prob[start + s] = (double) scaled[s] / total;
+                alias[start + s] = start + l;
+                scaled[l] -= total - scaled[s];
+                if (scaled[l] < total) {
+                    largeCount--;
+                    small[smallCount++] = l;
+                }
+            }
+            while (largeCount > 0) {
+                int l = large[--largeCount];
+                prob[start + l] = 1;
+                alias[start + l] = start + l;
+            }
+            while (smallCount > 0) {
+                int s = small[--smallCount];
+                prob[start + s] = 1;
+                alias[start + s] = start + s;
+            }
+        }
+        return new EdgeSampler(prob, alias);
+    }
+}
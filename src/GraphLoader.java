@@ -0,0 +1,244 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * 流式建图：通过 FileChannel 以固定大小的缓冲区读取文件，逐字节切词，
+ * 相邻单词构成的二元组直接写入 WordGraph.Builder。
+ * 切词规则与原来的 replaceAll("[^a-zA-Z\\s]", " ").toLowerCase().split("\\s+") 一致：
+ * 只有 ASCII 字母属于单词，其余字节（包括 UTF-8 多字节字符）都视为分隔符。
+ * 峰值内存只取决于缓冲区和词表大小，与文件大小无关。
+ * 大文件按字节区间切块，在 fork-join 线程池上并行建图，结果与顺序建图完全一致。
+ */
+final class GraphLoader {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final long PARALLEL_THRESHOLD = 8L << 20;
+    private static final long MIN_CHUNK_SIZE = 1L << 20;
+
+    private GraphLoader() {
+    }
+
+    /** 小文件顺序读取，超过 PARALLEL_THRESHOLD 且有多个核时自动切换为并行建图。 */
+    static WordGraph load(Path file) throws IOException {
+        int parallelism = ForkJoinPool.commonPool().getParallelism();
+        long size = Files.size(file);
+        if (parallelism > 1 && size >= PARALLEL_THRESHOLD) {
+            int chunks = (int) Math.min(parallelism * 4L, size / MIN_CHUNK_SIZE);
+            return loadParallel(file, chunks);
+        }
+        return loadSequential(file);
+    }
+
+    static WordGraph loadSequential(Path file) throws IOException {
+        WordGraph.Builder builder = new WordGraph.Builder();
+        BigramSink sink = new BigramSink(builder);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                sink.accept(buffer);
+                buffer.clear();
+            }
+        }
+        sink.finish();
+        return builder.build();
+    }
+
+    /**
+     * 把文件切成 chunks 个字节区间并行建图。
+     * 切分点会向后移动到下一个非字母字节，保证没有单词跨块；
+     * 跨越块边界的那个二元组（左块最后一个词 -> 右块第一个词）在合并时补上。
+     */
+    static WordGraph loadParallel(Path file, int chunks) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long[] bounds = splitPoints(channel, Math.max(1, chunks));
+            Partial result = ForkJoinPool.commonPool().invoke(new ChunkTask(channel, bounds, 0, bounds.length - 1));
+            return result.builder.build();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static long[] splitPoints(FileChannel channel, int chunks) throws IOException {
+        long size = channel.size();
+        long[] bounds = new long[chunks + 1];
+        bounds[chunks] = size;
+        ByteBuffer probe = ByteBuffer.allocate(256);
+        for (int k = 1; k < chunks; k++) {
+            long pos = Math.max(size * k / chunks, bounds[k - 1]);
+            bounds[k] = alignToSeparator(channel, pos, size, probe);
+        }
+        return bounds;
+    }
+
+    private static long alignToSeparator(FileChannel channel, long pos, long size, ByteBuffer probe) throws IOException {
+        while (pos < size) {
+            probe.clear();
+            int n = channel.read(probe, pos);
+            for (int i = 0; i < n; i++) {
+                if (!isLetter(probe.get(i))) {
+                    return pos + i;
+                }
+            }
+            pos += n;
+        }
+        return size;
+    }
+
+    private static boolean isLetter(byte b) {
+        return (b >= 'a' && b <= 'z') || (b >= 'A' && b <= 'Z');
+    }
+
+    /** 一个字节区间的局部建图结果：局部构建器以及区间内第一个、最后一个词的局部 ID。 */
+    private record Partial(WordGraph.Builder builder, int first, int last) {
+    }
+
+    /**
+     * 对块下标区间 [lo, hi) 分治：单块直接切词，多块时左右两半并行处理后按文件顺序合并，
+     * 右半的词表并入左半，并补上两半交界处的二元组。
+     */
+    @SuppressWarnings("serial")
+    private static final class ChunkTask extends RecursiveTask<Partial> {
+        private final FileChannel channel;
+        private final long[] bounds;
+        private final int lo;
+        private final int hi;
+
+        ChunkTask(FileChannel channel, long[] bounds, int lo, int hi) {
+            this.channel = channel;
+            this.bounds = bounds;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected Partial compute() {
+            if (hi - lo == 1) {
+                return readChunk(bounds[lo], bounds[hi]);
+            }
+            int mid = (lo + hi) >>> 1;
+            ChunkTask left = new ChunkTask(channel, bounds, lo, mid);
+            left.fork();
+            Partial right = new ChunkTask(channel, bounds, mid, hi).compute();
+            return merge(left.join(), right);
+        }
+
+        private Partial readChunk(long from, long to) {
+            WordGraph.Builder builder = new WordGraph.Builder();
+            BigramSink sink = new BigramSink(builder);
+            ByteBuffer buffer = ByteBuffer.allocateDirect((int) Math.min(BUFFER_SIZE, Math.max(1, to - from)));
+            try {
+                long pos = from;
+                while (pos < to) {
+                    buffer.clear();
+                    buffer.limit((int) Math.min(buffer.capacity(), to - pos));
+                    int n = channel.read(buffer, pos);
+                    if (n < 0) {
+                        break;
+                    }
+                    buffer.flip();
+                    sink.accept(buffer);
+                    pos += n;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            sink.finish();
+            return new Partial(builder, sink.first(), sink.last());
+        }
+
+        private static Partial merge(Partial left, Partial right) {
+            int[] map = left.builder.mergeFrom(right.builder);
+            if (right.first < 0) {
+                return left;
+            }
+            if (left.last >= 0) {
+                left.builder.addEdge(left.last, map[right.first]);
+            }
+            int first = left.first >= 0 ? left.first : map[right.first];
+            return new Partial(left.builder, first, map[right.last]);
+        }
+    }
+
+    /**
+     * 单趟切词状态机：累积当前单词的小写字节，遇到分隔符时 intern 并与上一个词连边。
+     */
+    static final class BigramSink {
+        private final WordGraph.Builder builder;
+        private byte[] token = new byte[32];
+        private int length;
+        private int first = -1;
+        private int prev = -1;
+
+        BigramSink(WordGraph.Builder builder) {
+            this(builder, -1);
+        }
+
+        /** prev 为之前已读入文本的最后一个词的 ID，它与本次第一个词之间的二元组同样会被记录。 */
+        BigramSink(WordGraph.Builder builder, int prev) {
+            this.builder = builder;
+            this.prev = prev;
+        }
+
+        void accept(ByteBuffer buffer) {
+            while (buffer.hasRemaining()) {
+                accept(buffer.get());
+            }
+        }
+
+        void accept(byte b) {
+            if (b >= 'A' && b <= 'Z') {
+                b += 'a' - 'A';
+            } else if (b < 'a' || b > 'z') {
+                endToken();
+                return;
+            }
+            if (length == token.length) {
+                token = Arrays.copyOf(token, length * 2);
+            }
+            token[length++] = b;
+        }
+
+        /** 输入结束时收尾：最后一个词也会被 intern，即使它没有出边。 */
+        void finish() {
+            endToken();
+        }
+
+        /** 取出尚未遇到分隔符的半个词（已转为小写），不 intern；用于跟踪仍在写入的文件。 */
+        byte[] takePending() {
+            byte[] pending = Arrays.copyOf(token, length);
+            length = 0;
+            return pending;
+        }
+
+        int first() {
+            return first;
+        }
+
+        int last() {
+            return prev;
+        }
+
+        private void endToken() {
+            if (length == 0) {
+                return;
+            }
+            int id = builder.intern(new String(token, 0, length, StandardCharsets.US_ASCII));
+            if (prev >= 0) {
+                builder.addEdge(prev, id);
+            } else {
+                first = id;
+            }
+            prev = id;
+            length = 0;
+        }
+    }
+}
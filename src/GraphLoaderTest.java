@@ -0,0 +1,96 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+
+public class GraphLoaderTest {
+
+    private Path writeTemp(String content) throws Exception {
+        Path tempFile = Files.createTempFile("graph_input_" + UUID.randomUUID(), ".txt");
+        Files.writeString(tempFile, content);
+        return tempFile;
+    }
+
+    // 并行建图必须与顺序建图完全一致：词表顺序、每行出边及权重
+    private void assertSameGraph(WordGraph expected, WordGraph actual) {
+        assertEquals(expected.size(), actual.size());
+        assertEquals(expected.edgeCount(), actual.edgeCount());
+        for (int u = 0; u < expected.size(); u++) {
+            assertEquals(expected.word(u), actual.word(u));
+            assertEquals(expected.outStart(u), actual.outStart(u));
+            assertEquals(expected.outEnd(u), actual.outEnd(u));
+        }
+        for (int i = 0; i < expected.edgeCount(); i++) {
+            assertEquals(expected.target(i), actual.target(i));
+            assertEquals(expected.weight(i), actual.weight(i));
+        }
+    }
+
+    @Test
+    public void testTokenizerMatchesRegexSplit() throws Exception {
+        WordGraph g = GraphLoader.loadSequential(writeTemp("Hello, World! hello--world\n\tÉcole  x"));
+        assertEquals(4, g.size());
+        assertEquals("hello", g.word(0));
+        assertEquals("world", g.word(1));
+        assertEquals("cole", g.word(2));
+        assertEquals(2, g.weight(g.edgeIndex(0, 1)));
+        assertTrue(g.hasEdge(2, 3));
+        assertEquals(0, g.outDegree(3));
+    }
+
+    @Test
+    public void testParallelMatchesSequentialOnCorpus() throws Exception {
+        Path corpus = Path.of("Cursed Be The Treasure.txt");
+        WordGraph sequential = GraphLoader.loadSequential(corpus);
+        for (int chunks : new int[]{1, 2, 7, 64, 1000}) {
+            assertSameGraph(sequential, GraphLoader.loadParallel(corpus, chunks));
+        }
+    }
+
+    @Test
+    public void testParallelRepairsChunkBoundaries() throws Exception {
+        // 很多块比单词还短，会出现空块和被推后的切分点
+        Path file = writeTemp("a bb ccc dddddddddddd a  ,, bb ccc a last");
+        WordGraph sequential = GraphLoader.loadSequential(file);
+        for (int chunks = 1; chunks <= 40; chunks++) {
+            assertSameGraph(sequential, GraphLoader.loadParallel(file, chunks));
+        }
+    }
+
+    @Test
+    public void testReverseIndexMirrorsOutEdges() throws Exception {
+        WordGraph g = GraphLoader.loadSequential(Path.of("Cursed Be The Treasure.txt"));
+        int inEdges = 0;
+        for (int v = 0; v < g.size(); v++) {
+            for (int i = g.inStart(v); i < g.inEnd(v); i++) {
+                int u = g.source(i);
+                assertTrue(i == g.inStart(v) || g.source(i - 1) < u);
+                assertEquals(g.weight(g.edgeIndex(u, v)), g.inWeight(i));
+                inEdges++;
+            }
+        }
+        assertEquals(g.edgeCount(), inEdges);
+    }
+
+    @Test
+    public void testEmptyAndSingleWord() throws Exception {
+        assertEquals(0, GraphLoader.loadParallel(writeTemp(""), 4).size());
+        WordGraph single = GraphLoader.loadParallel(writeTemp("  word  "), 4);
+        assertEquals(1, single.size());
+        assertEquals(0, single.edgeCount());
+    }
+
+    // build() 之后构建器不能再修改，已发布的图的词表不会被改动
+    @Test
+    public void testBuilderIsSingleUse() {
+        WordGraph.Builder builder = new WordGraph.Builder();
+        builder.addEdge(builder.intern("a"), builder.intern("b"));
+        WordGraph graph = builder.build();
+        assertThrows(IllegalStateException.class, () -> builder.intern("c"));
+        assertThrows(IllegalStateException.class, builder::build);
+        assertEquals(-1, graph.id("c"));
+        assertEquals(2, graph.size());
+    }
+}
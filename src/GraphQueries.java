@@ -0,0 +1,105 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * 命令行前端的各项查询，以显式传入的图和随机数生成器为参数、只读不写，
+ * 可以在多个线程上对同一个图并发调用。Lab1 的同名方法委托到这里，输出完全相同。
+ */
+final class GraphQueries {
+    private GraphQueries() {
+    }
+
+    static String bridgeWords(WordGraph graph, String word1, String word2) {
+        boolean hasWord1 = graph.contains(word1);
+        boolean hasWord2 = graph.contains(word2);
+
+        if (!hasWord1 && !hasWord2) {
+            return "No \"" + word1 + "\" and \"" + word2 + "\" in the graph!";
+        }
+        if (!hasWord1) return "No \"" + word1 + "\" in the graph!";
+        if (!hasWord2) return "No \"" + word2 + "\" in the graph!";
+
+        List<String> bridgeList = new ArrayList<>();
+        for (int mid : graph.bridges(graph.id(word1), graph.id(word2))) {
+            bridgeList.add(graph.word(mid));
+        }
+
+        if (bridgeList.isEmpty()) {
+            return "No bridge words from \"" + word1 + "\" to \"" + word2 + "\"!";
+        }
+
+        String result;
+        if (bridgeList.size() == 1) {
+            result = bridgeList.getFirst();
+        } else if (bridgeList.size() == 2) {
+            result = bridgeList.get(0) + " and " + bridgeList.get(1);
+        } else {
+            result = String.join(", ", bridgeList.subList(0, bridgeList.size() - 1))
+                    + ", and " + bridgeList.getLast();
+        }
+
+        return "The bridge words from \"" + word1 + "\" to \"" + word2 + "\" are: " + result + ".";
+    }
+
+    static String generateNewText(WordGraph graph, String inputText, RandomGenerator random) {
+        String[] words = inputText.toLowerCase().replaceAll("[^a-zA-Z\\s]", " ").split("\\s+");
+        // 只有标点或空白的输入切分后没有任何词
+        if (words.length == 0) return "";
+        StringBuilder result = new StringBuilder(words[0]);
+        for (int i = 0; i < words.length - 1; i++) {
+            String w2 = words[i + 1];
+            int[] bridges = graph.bridges(graph.id(words[i]), graph.id(w2));
+            if (bridges.length > 0) {
+                String bridge = graph.word(bridges[random.nextInt(bridges.length)]);
+                result.append(" ").append(bridge);
+            }
+            result.append(" ").append(w2);
+        }
+        return result.toString();
+    }
+
+    static String shortestPath(WordGraph graph, String word1, String word2) {
+        if (!graph.contains(word1)) return "No \"" + word1 + "\" in the graph!";
+        if (!graph.contains(word2)) return "No \"" + word2 + "\" in the graph!";
+        int target = graph.id(word2);
+        ShortestPaths.Tree tree = ShortestPaths.bidirectional(graph, graph.id(word1), target);
+
+        if (!tree.reaches(target))
+            return "No path from \"" + word1 + "\" to \"" + word2 + "\"";
+
+        return "Shortest path: " + String.join(" -> ", tree.path(graph, target)) + "\nLength: " + tree.dist()[target];
+    }
+
+    static String kShortestPaths(WordGraph graph, String word1, String word2, int k) {
+        if (!graph.contains(word1)) return "No \"" + word1 + "\" in the graph!";
+        if (!graph.contains(word2)) return "No \"" + word2 + "\" in the graph!";
+        List<KShortestPaths.WeightedPath> paths = KShortestPaths.find(graph, graph.id(word1), graph.id(word2), k);
+        if (paths.isEmpty())
+            return "No path from \"" + word1 + "\" to \"" + word2 + "\"";
+
+        StringBuilder sb = new StringBuilder("Top " + paths.size() + " paths from \"" + word1 + "\" to \"" + word2 + "\":");
+        for (int i = 0; i < paths.size(); i++) {
+            sb.append("\n").append(i + 1).append(". ").append(String.join(" -> ", paths.get(i).words(graph)))
+                    .append(" (Length: ").append(paths.get(i).length()).append(")");
+        }
+        return sb.toString();
+    }
+
+    /** 从均匀随机选出的词出发的一条随机游走，词之间以空格分隔；图为空时返回空串。 */
+    static String randomWalk(WordGraph graph, RandomGenerator random) {
+        if (graph.size() == 0) return "";
+        int[] walk = RandomWalks.walk(graph, EdgeSampler.UNIFORM, random.nextInt(graph.size()),
+                new SplittableRandom(random.nextLong()));
+        return String.join(" ", words(graph, walk));
+    }
+
+    static List<String> words(WordGraph graph, int[] ids) {
+        List<String> words = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            words.add(graph.word(id));
+        }
+        return words;
+    }
+}
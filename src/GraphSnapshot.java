@@ -0,0 +1,275 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * 词图的二进制快照，下次启动时跳过切词：通过内存映射读取，但各数组都复制到堆上、词表重建为 HashMap，
+ * 读完后不再引用映射，图本身不依赖快照文件；加载期间的峰值内存是映射加上一份完整的堆上副本。默认关闭，用系统属性 graph.snapshot=true 开启；
+ * 快照写在缓存目录 graph.snapshot.dir（默认为临时目录下的 textflow-snapshots）中，
+ * 文件名为源文件名加上其绝对路径的散列与 ".wgs"，不会在语料旁边留下文件。
+ * 文件布局（小端）：
+ * <pre>
+ *   int magic, int version, long 源文件长度, int 源文件 CRC32C, int 节点数 n, int 边数 m, int 词表字节数,
+ *   int 数据部分（头部之后全部字节）的 CRC32C
+ *   int[n + 1] offsets, int[m] targets, int[m] weights,
+ *   int[n + 1] inOffsets, int[m] sources, int[m] inWeights,
+ *   int[n + 1] 各词在词表中的起始位置, byte[] 词表（ASCII）
+ * </pre>
+ * 版本号、源文件长度、校验和或快照长度任一不符时视为过期，回退到解析文本并重写快照。
+ * 读取时先校验数据部分的 CRC32C，再检查 CSR 的自洽性；写入时先写临时文件再原子替换，读者不会看到写了一半的快照。
+ */
+final class GraphSnapshot {
+    static final int MAGIC = 0x57475331;
+    static final int VERSION = 2;
+    static final int HEADER_BYTES = 36;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private GraphSnapshot() {
+    }
+
+    static Path snapshotPath(Path source) {
+        Path directory = Path.of(System.getProperty("graph.snapshot.dir",
+                Path.of(System.getProperty("java.io.tmpdir"), "textflow-snapshots").toString()));
+        String key = Integer.toHexString(source.toAbsolutePath().normalize().toString().hashCode());
+        return directory.resolve(source.getFileName() + "-" + key + ".wgs");
+    }
+
+    static boolean enabled() {
+        return Boolean.parseBoolean(System.getProperty("graph.snapshot", "false"));
+    }
+
+    /** 有可用的快照时直接读取，否则解析源文件并尽量写出快照（写入失败不影响返回结果）。 */
+    static WordGraph loadOrParse(Path source) throws IOException {
+        if (!enabled()) {
+            return GraphLoader.load(source);
+        }
+        long length = Files.size(source);
+        int crc = checksum(source);
+        Path snapshot = snapshotPath(source);
+        WordGraph graph = read(snapshot, length, crc);
+        if (graph != null) {
+            return graph;
+        }
+        graph = GraphLoader.load(source);
+        try {
+            Files.createDirectories(snapshot.toAbsolutePath().getParent());
+            write(graph, snapshot, length, crc);
+        } catch (IOException ignored) {
+            // 只读目录等情况下没有快照也能正常工作
+        }
+        return graph;
+    }
+
+    static int checksum(Path source) throws IOException {
+        CRC32C crc = new CRC32C();
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                crc.update(buffer);
+                buffer.clear();
+            }
+        }
+        return (int) crc.getValue();
+    }
+
+    /** 读取快照；不存在、格式或版本不符、与源文件不匹配时返回 null。 */
+    static WordGraph read(Path snapshot, long sourceLength, int sourceCrc) throws IOException {
+        if (!Files.isRegularFile(snapshot)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES || size > Integer.MAX_VALUE) {
+                return null;
+            }
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            map.order(ByteOrder.LITTLE_ENDIAN);
+            if (map.getInt(0) != MAGIC || map.getInt(4) != VERSION
+                    || map.getLong(8) != sourceLength || map.getInt(16) != sourceCrc) {
+                return null;
+            }
+            int n = map.getInt(20);
+            int m = map.getInt(24);
+            int vocabBytes = map.getInt(28);
+            if (n < 0 || m < 0 || vocabBytes < 0 || size != expectedSize(n, m, vocabBytes)) {
+                return null;
+            }
+            CRC32C payload = new CRC32C();
+            payload.update(map.slice(HEADER_BYTES, (int) size - HEADER_BYTES));
+            if ((int) payload.getValue() != map.getInt(32)) {
+                return null;
+            }
+            IntBuffer ints = map.position(HEADER_BYTES).slice().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+            int[] offsets = take(ints, n + 1);
+            int[] targets = take(ints, m);
+            int[] weights = take(ints, m);
+            int[] inOffsets = take(ints, n + 1);
+            int[] sources = take(ints, m);
+            int[] inWeights = take(ints, m);
+            int[] wordStarts = take(ints, n + 1);
+            if (!consistent(n, m, offsets, targets, inOffsets, sources, wordStarts, vocabBytes)) {
+                return null;
+            }
+
+            byte[] vocab = new byte[vocabBytes];
+            map.get((int) (size - vocabBytes), vocab);
+            String[] words = new String[n];
+            for (int i = 0; i < n; i++) {
+                words[i] = new String(vocab, wordStarts[i], wordStarts[i + 1] - wordStarts[i],
+                        StandardCharsets.ISO_8859_1);
+            }
+            return WordGraph.fromArrays(words, offsets, targets, weights, inOffsets, sources, inWeights);
+        }
+    }
+
+    static void write(WordGraph graph, Path snapshot, long sourceLength, int sourceCrc) throws IOException {
+        int n = graph.size();
+        int m = graph.edgeCount();
+        int[] wordStarts = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            wordStarts[i + 1] = wordStarts[i] + graph.word(i).length();
+        }
+        if (expectedSize(n, m, wordStarts[n]) > Integer.MAX_VALUE) {
+            return;
+        }
+
+        Path temp = Files.createTempFile(snapshot.toAbsolutePath().getParent(), snapshot.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                // 先写数据部分并累计其校验和，最后补写头部
+                channel.position(HEADER_BYTES);
+                Output out = new Output(channel);
+                for (int u = 0; u <= n; u++) {
+                    out.putInt(u < n ? graph.outStart(u) : m);
+                }
+                for (int i = 0; i < m; i++) {
+                    out.putInt(graph.target(i));
+                }
+                for (int i = 0; i < m; i++) {
+                    out.putInt(graph.weight(i));
+                }
+                for (int v = 0; v <= n; v++) {
+                    out.putInt(v < n ? graph.inStart(v) : m);
+                }
+                for (int i = 0; i < m; i++) {
+                    out.putInt(graph.source(i));
+                }
+                for (int i = 0; i < m; i++) {
+                    out.putInt(graph.inWeight(i));
+                }
+                for (int start : wordStarts) {
+                    out.putInt(start);
+                }
+                for (int i = 0; i < n; i++) {
+                    out.put(graph.word(i).getBytes(StandardCharsets.ISO_8859_1));
+                }
+                out.flush();
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                header.putInt(MAGIC).putInt(VERSION).putLong(sourceLength).putInt(sourceCrc)
+                        .putInt(n).putInt(m).putInt(wordStarts[n]).putInt(out.checksum());
+                header.flip();
+                while (header.hasRemaining()) {
+                    channel.write(header, header.position());
+                }
+                channel.force(false);
+            }
+            Files.move(temp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static long expectedSize(int n, int m, int vocabBytes) {
+        return HEADER_BYTES + 4L * (3L * (n + 1) + 4L * m) + vocabBytes;
+    }
+
+    /** CSR 是否自洽：行偏移单调且以 m 结尾，所有端点都是合法的节点 ID。 */
+    private static boolean consistent(int n, int m, int[] offsets, int[] targets, int[] inOffsets, int[] sources,
+                                      int[] wordStarts, int vocabBytes) {
+        if (offsets[0] != 0 || inOffsets[0] != 0 || wordStarts[0] != 0
+                || offsets[n] != m || inOffsets[n] != m || wordStarts[n] != vocabBytes) {
+            return false;
+        }
+        for (int u = 0; u < n; u++) {
+            if (offsets[u] > offsets[u + 1] || inOffsets[u] > inOffsets[u + 1] || wordStarts[u] > wordStarts[u + 1]) {
+                return false;
+            }
+        }
+        for (int i = 0; i < m; i++) {
+            if (targets[i] < 0 || targets[i] >= n || sources[i] < 0 || sources[i] >= n) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int[] take(IntBuffer ints, int count) {
+        int[] values = new int[count];
+        ints.get(values);
+        return values;
+    }
+
+    /** 小端写出，经 64 KiB 缓冲区批量写入通道，同时累计写出内容的 CRC32C。 */
+    private static final class Output {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        private final CRC32C crc = new CRC32C();
+
+        Output(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void putInt(int value) throws IOException {
+            ensure(4);
+            buffer.putInt(value);
+        }
+
+        void putLong(long value) throws IOException {
+            ensure(8);
+            buffer.putLong(value);
+        }
+
+        void put(byte[] bytes) throws IOException {
+            if (bytes.length > buffer.capacity()) {
+                flush();
+                crc.update(bytes);
+                ByteBuffer wrapped = ByteBuffer.wrap(bytes);
+                while (wrapped.hasRemaining()) {
+                    channel.write(wrapped);
+                }
+                return;
+            }
+            ensure(bytes.length);
+            buffer.put(bytes);
+        }
+
+        int checksum() {
+            return (int) crc.getValue();
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            crc.update(buffer.duplicate());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+    }
+}
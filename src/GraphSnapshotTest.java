@@ -0,0 +1,119 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class GraphSnapshotTest {
+    private Path cache;
+
+    // 快照默认关闭；测试中打开，并写到单独的临时目录
+    @BeforeEach
+    public void enableSnapshots() throws Exception {
+        cache = Files.createTempDirectory("snapshot-cache");
+        System.setProperty("graph.snapshot", "true");
+        System.setProperty("graph.snapshot.dir", cache.toString());
+    }
+
+    @AfterEach
+    public void disableSnapshots() {
+        System.clearProperty("graph.snapshot");
+        System.clearProperty("graph.snapshot.dir");
+    }
+
+    private Path copyCorpus() throws Exception {
+        Path dir = Files.createTempDirectory("snapshot");
+        return Files.copy(Path.of("Cursed Be The Treasure.txt"), dir.resolve("corpus.txt"));
+    }
+
+    private void assertSameGraph(WordGraph expected, WordGraph actual) {
+        assertEquals(expected.size(), actual.size());
+        assertEquals(expected.edgeCount(), actual.edgeCount());
+        for (int u = 0; u < expected.size(); u++) {
+            assertEquals(expected.word(u), actual.word(u));
+            assertEquals(u, actual.id(expected.word(u)));
+            assertEquals(expected.outStart(u), actual.outStart(u));
+            assertEquals(expected.inStart(u), actual.inStart(u));
+        }
+        for (int i = 0; i < expected.edgeCount(); i++) {
+            assertEquals(expected.target(i), actual.target(i));
+            assertEquals(expected.weight(i), actual.weight(i));
+            assertEquals(expected.source(i), actual.source(i));
+            assertEquals(expected.inWeight(i), actual.inWeight(i));
+        }
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        Path source = copyCorpus();
+        WordGraph parsed = GraphSnapshot.loadOrParse(source);
+        Path snapshot = GraphSnapshot.snapshotPath(source);
+        assertTrue(Files.exists(snapshot));
+        assertEquals(cache, snapshot.getParent());
+        // 源文件旁边不留下任何文件
+        try (var siblings = Files.list(source.getParent())) {
+            assertEquals(1, siblings.count());
+        }
+        WordGraph restored = GraphSnapshot.read(snapshot, Files.size(source), GraphSnapshot.checksum(source));
+        assertNotNull(restored);
+        assertSameGraph(GraphLoader.loadSequential(source), restored);
+        assertSameGraph(parsed, GraphSnapshot.loadOrParse(source));
+    }
+
+    @Test
+    public void testStaleSnapshotFallsBackToParsing() throws Exception {
+        Path source = copyCorpus();
+        GraphSnapshot.loadOrParse(source);
+        // 长度不变、内容改变：只有校验和能发现
+        byte[] bytes = Files.readAllBytes(source);
+        bytes[100] = (byte) (bytes[100] == 'x' ? 'y' : 'x');
+        Files.write(source, bytes);
+        Path snapshot = GraphSnapshot.snapshotPath(source);
+        assertNull(GraphSnapshot.read(snapshot, bytes.length, GraphSnapshot.checksum(source)));
+        assertSameGraph(GraphLoader.loadSequential(source), GraphSnapshot.loadOrParse(source));
+        // 回退时快照被重写
+        assertNotNull(GraphSnapshot.read(snapshot, bytes.length, GraphSnapshot.checksum(source)));
+    }
+
+    @Test
+    public void testCorruptOrOldSnapshotIsIgnored() throws Exception {
+        Path source = copyCorpus();
+        GraphSnapshot.loadOrParse(source);
+        Path snapshot = GraphSnapshot.snapshotPath(source);
+        long length = Files.size(source);
+        int crc = GraphSnapshot.checksum(source);
+
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(0, GraphSnapshot.VERSION + 1), 4);
+        }
+        assertNull(GraphSnapshot.read(snapshot, length, crc));
+
+        GraphSnapshot.loadOrParse(source);
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.WRITE)) {
+            // 第一个出边偏移被改坏
+            channel.write(ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(0, 7), GraphSnapshot.HEADER_BYTES);
+        }
+        assertNull(GraphSnapshot.read(snapshot, length, crc));
+
+        WordGraph graph = GraphSnapshot.loadOrParse(source);
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.WRITE)) {
+            // 把第一条边的权重改成另一个合法的值：CSR 仍然自洽，只有数据部分的校验和能发现
+            long firstWeight = GraphSnapshot.HEADER_BYTES + 4L * (graph.size() + 1 + graph.edgeCount());
+            channel.write(ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(0, graph.weight(0) + 1),
+                    firstWeight);
+        }
+        assertNull(GraphSnapshot.read(snapshot, length, crc));
+
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 1);
+        }
+        assertNull(GraphSnapshot.read(snapshot, length, crc));
+        assertSameGraph(GraphLoader.loadSequential(source), GraphSnapshot.loadOrParse(source));
+    }
+}
@@ -0,0 +1,114 @@
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * 带版本号的图。写者（加载、追加、重新加载）在旁边构建好新的不可变 WordGraph，再以一次原子替换发布为新版本；
+ * 读者 pin() 当前版本，整个查询只用这一个版本，从不加锁也不等待写者。
+ * 每个版本带引用计数：仓库为当前版本持有一个引用，每个未关闭的 Pin 持有一个。
+ * 版本被替换且最后一个读者关闭 Pin 后，该版本退役并丢弃对图的引用，图占用的数组随之可以被回收。
+ * 计数降到 0 的版本不能再被 pin，与发布竞争的读者会重新读取当前版本。
+ */
+final class GraphStore {
+    private final AtomicReference<Version> current;
+    private final AtomicInteger liveVersions = new AtomicInteger(1);
+
+    GraphStore(WordGraph initial) {
+        current = new AtomicReference<>(new Version(initial, 1));
+    }
+
+    /** 某个读者对一个版本的引用，关闭后（可重复关闭）不能再读取。 */
+    final class Pin implements AutoCloseable {
+        private final Version version;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Pin(Version version) {
+            this.version = version;
+        }
+
+        WordGraph graph() {
+            if (closed.get()) {
+                throw new IllegalStateException("版本 " + version.number + " 的 Pin 已关闭");
+            }
+            return version.graph;
+        }
+
+        long version() {
+            return version.number;
+        }
+
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                version.release();
+            }
+        }
+    }
+
+    private final class Version {
+        private final long number;
+        private final AtomicInteger refs = new AtomicInteger(1);
+        private volatile WordGraph graph;
+
+        Version(WordGraph graph, long number) {
+            this.graph = graph;
+            this.number = number;
+        }
+
+        /** 计数已降到 0（版本已退役）时返回 false。 */
+        boolean tryAcquire() {
+            int n;
+            do {
+                n = refs.get();
+                if (n == 0) {
+                    return false;
+                }
+            } while (!refs.compareAndSet(n, n + 1));
+            return true;
+        }
+
+        void release() {
+            if (refs.decrementAndGet() == 0) {
+                graph = null;
+                liveVersions.decrementAndGet();
+            }
+        }
+    }
+
+    /** 固定当前版本；用完必须关闭。 */
+    Pin pin() {
+        while (true) {
+            Version version = current.get();
+            if (version.tryAcquire()) {
+                return new Pin(version);
+            }
+        }
+    }
+
+    /** 在固定的当前版本上执行一次只读查询。 */
+    <T> T read(Function<WordGraph, T> query) {
+        try (Pin pin = pin()) {
+            return query.apply(pin.graph());
+        }
+    }
+
+    /** 发布新版本并返回其版本号；写者之间互斥，读者不受影响。 */
+    synchronized long publish(WordGraph graph) {
+        Version previous = current.get();
+        Version next = new Version(graph, previous.number + 1);
+        liveVersions.incrementAndGet();
+        current.set(next);
+        previous.release();
+        return next.number;
+    }
+
+    long version() {
+        return current.get().number;
+    }
+
+    /** 尚未退役的版本数：当前版本加上仍被读者固定的旧版本。 */
+    int liveVersions() {
+        return liveVersions.get();
+    }
+}
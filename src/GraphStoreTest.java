@@ -0,0 +1,81 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class GraphStoreTest {
+
+    /** 含 n 个词的链 w0 -> w1 -> ...，词数可以用来识别是哪个版本。 */
+    private WordGraph chain(int n) {
+        WordGraph.Builder builder = new WordGraph.Builder();
+        int prev = -1;
+        for (int i = 0; i < n; i++) {
+            int id = builder.intern("w" + i);
+            if (prev >= 0) {
+                builder.addEdge(prev, id);
+            }
+            prev = id;
+        }
+        return builder.build();
+    }
+
+    @Test
+    public void testPinnedVersionSurvivesPublishUntilClosed() {
+        GraphStore store = new GraphStore(chain(1));
+        GraphStore.Pin pin = store.pin();
+        assertEquals(1, pin.version());
+
+        assertEquals(2, store.publish(chain(2)));
+        assertEquals(2, store.version());
+        assertEquals(2, store.liveVersions());
+        // 旧的读者仍然看到自己开始时的图
+        assertEquals(1, pin.graph().size());
+        assertEquals(2, store.read(WordGraph::size));
+
+        pin.close();
+        pin.close();
+        assertEquals(1, store.liveVersions());
+        assertThrows(IllegalStateException.class, pin::graph);
+
+        // 没有读者的旧版本在发布时立即退役
+        store.publish(chain(3));
+        assertEquals(1, store.liveVersions());
+    }
+
+    @Test
+    public void testConcurrentReadersAlwaysSeeConsistentVersions() throws Exception {
+        GraphStore store = new GraphStore(chain(1));
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> readers = new ArrayList<>();
+        for (int r = 0; r < 4; r++) {
+            readers.add(Thread.ofPlatform().start(() -> {
+                try {
+                    while (!done.get()) {
+                        try (GraphStore.Pin pin = store.pin()) {
+                            // 版本号 v 对应的图恰好有 v 个词
+                            WordGraph g = pin.graph();
+                            assertEquals(pin.version(), g.size());
+                            Thread.yield();
+                            assertEquals(pin.version(), g.size());
+                        }
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            }));
+        }
+        for (int v = 2; v <= 300; v++) {
+            assertEquals(v, store.publish(chain(v)));
+        }
+        done.set(true);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        assertNull(failure.get());
+        assertEquals(1, store.liveVersions());
+    }
+}
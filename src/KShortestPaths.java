@@ -0,0 +1,327 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * 前 K 条无环最短路（Yen 算法 + Lawler 偏离下标优化），按需逐条生成。
+ * 第一条路径与 calcShortestPath 的结果相同（包括等长时的选择）。
+ * 对 target 预先做一次反向 Dijkstra 得到最短路树 distT / nextT，并在所有迭代中复用：
+ * 每个偏离（spur）先以 根路径长度 + min(w + distT[v]) 作为下界放入候选堆，只有出堆时才真正求解；
+ * 求解时若最优首边之后沿最短路树走到 target 不碰到被屏蔽的节点，直接得到结果，
+ * 否则以 distT 为启发函数做 A* 搜索。下界不大于真实长度，所以出堆顺序与标准 Yen 算法一致。
+ */
+final class KShortestPaths {
+    private static final int UNREACHABLE = ShortestPaths.UNREACHABLE;
+
+    /** 一条路径及其长度。 */
+    record WeightedPath(int[] nodes, int length) {
+        List<String> words(WordGraph graph) {
+            List<String> words = new ArrayList<>(nodes.length);
+            for (int node : nodes) {
+                words.add(graph.word(node));
+            }
+            return words;
+        }
+    }
+
+    /**
+     * 候选项：resolved 为 null 时表示尚未求解的偏离，key 为其长度下界；
+     * blockedNext 为生成时所有同根已选路径在偏离点之后的下一个节点，对应 Yen 算法中删除的边。
+     */
+    private record Candidate(long key, long seq, int[] parent, int spurIndex, int[] blockedNext,
+                             WeightedPath resolved) {
+    }
+
+    /** 已生成路径的去重键：按节点序列比较，不装箱。 */
+    private record PathKey(int[] nodes) {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof PathKey other && Arrays.equals(nodes, other.nodes);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(nodes);
+        }
+    }
+
+    private final WordGraph graph;
+    private final int target;
+    private final int[] distT;
+    private final int[] nextT;
+    private final List<WeightedPath> accepted = new ArrayList<>();
+    private final Set<PathKey> seen = new HashSet<>();
+    /** 当前偏离的根路径节点（偏离点除外），每次用完只清除根路径上的几个位置。 */
+    private final boolean[] blockedNode;
+    /** A* 的 g / f / 前驱数组与堆在所有偏离间复用；touched 记录本次搜索写过的节点，结束后只重置这些位置。 */
+    private final int[] g;
+    private final int[] f;
+    private final int[] prev;
+    private final int[] touched;
+    private int touchedCount;
+    private final ShortestPaths.IndexedHeap heap;
+    private final PriorityQueue<Candidate> candidates = new PriorityQueue<>((a, b) -> {
+        if (a.key != b.key) {
+            return Long.compare(a.key, b.key);
+        }
+        // 同长度时先取已求解的候选，避免无谓地求解偏离
+        if ((a.resolved == null) != (b.resolved == null)) {
+            return a.resolved != null ? -1 : 1;
+        }
+        return Long.compare(a.seq, b.seq);
+    });
+    private long seq;
+
+    KShortestPaths(WordGraph graph, int source, int target) {
+        this.graph = graph;
+        this.target = target;
+        int n = graph.size();
+        distT = new int[n];
+        nextT = new int[n];
+        blockedNode = new boolean[n];
+        g = new int[n];
+        f = new int[n];
+        prev = new int[n];
+        touched = new int[n];
+        Arrays.fill(g, UNREACHABLE);
+        Arrays.fill(f, UNREACHABLE);
+        Arrays.fill(prev, -1);
+        heap = new ShortestPaths.IndexedHeap(f);
+        reverseTree();
+        if (distT[source] != UNREACHABLE) {
+            // 第一条取 calcShortestPath 给出的那条，等长路径的选择与单条查询一致
+            ShortestPaths.Tree tree = ShortestPaths.bidirectional(graph, source, target);
+            WeightedPath first = new WeightedPath(tree.nodes(target), tree.dist()[target]);
+            seen.add(new PathKey(first.nodes()));
+            candidates.add(new Candidate(first.length(), seq++, null, 0, null, first));
+        }
+    }
+
+    /** 返回前 k 条路径（不足 k 条时返回全部）。 */
+    static List<WeightedPath> find(WordGraph graph, int source, int target, int k) {
+        KShortestPaths paths = new KShortestPaths(graph, source, target);
+        List<WeightedPath> result = new ArrayList<>();
+        WeightedPath next;
+        while (result.size() < k && (next = paths.next()) != null) {
+            result.add(next);
+        }
+        return result;
+    }
+
+    /** 生成下一条路径，没有更多路径时返回 null。 */
+    WeightedPath next() {
+        while (!candidates.isEmpty()) {
+            Candidate c = candidates.poll();
+            if (c.resolved == null) {
+                WeightedPath spur = resolve(c);
+                if (spur != null && seen.add(new PathKey(spur.nodes()))) {
+                    candidates.add(new Candidate(spur.length(), seq++, c.parent, c.spurIndex, null, spur));
+                }
+                continue;
+            }
+            WeightedPath path = c.resolved;
+            accepted.add(path);
+            int deviation = c.parent == null ? 0 : c.spurIndex;
+            for (int i = deviation; i < path.nodes().length - 1; i++) {
+                addDeviation(path, i);
+            }
+            return path;
+        }
+        return null;
+    }
+
+    private void addDeviation(WeightedPath path, int spurIndex) {
+        int[] nodes = path.nodes();
+        int[] blocked = blockedNext(nodes, spurIndex);
+        markRoot(nodes, spurIndex, true);
+        int edge = bestFirstEdge(nodes[spurIndex], blocked);
+        markRoot(nodes, spurIndex, false);
+        if (edge >= 0) {
+            long key = rootLength(nodes, spurIndex) + (long) graph.weight(edge) + distT[graph.target(edge)];
+            candidates.add(new Candidate(key, seq++, nodes, spurIndex, blocked, null));
+        }
+    }
+
+    /** Yen 算法中需要删除的边：所有与 nodes[0..spurIndex] 同根的已选路径在偏离点之后的节点。 */
+    private int[] blockedNext(int[] nodes, int spurIndex) {
+        int[] blocked = new int[accepted.size()];
+        int count = 0;
+        for (WeightedPath p : accepted) {
+            int[] other = p.nodes();
+            if (other.length > spurIndex + 1 && Arrays.equals(other, 0, spurIndex + 1, nodes, 0, spurIndex + 1)) {
+                blocked[count++] = other[spurIndex + 1];
+            }
+        }
+        return Arrays.copyOf(blocked, count);
+    }
+
+    private WeightedPath resolve(Candidate c) {
+        markRoot(c.parent, c.spurIndex, true);
+        try {
+            return resolveSpur(c);
+        } finally {
+            markRoot(c.parent, c.spurIndex, false);
+        }
+    }
+
+    private WeightedPath resolveSpur(Candidate c) {
+        int[] root = Arrays.copyOf(c.parent, c.spurIndex + 1);
+        int spur = root[c.spurIndex];
+        int rootLength = rootLength(c.parent, c.spurIndex);
+
+        // 快速路径：最优首边之后的最短路树路径若未触碰屏蔽节点，即为最优偏离
+        int edge = bestFirstEdge(spur, c.blockedNext);
+        if (edge < 0) {
+            return null;
+        }
+        WeightedPath direct = treePath(graph.target(edge), root, rootLength + graph.weight(edge), spur);
+        if (direct != null) {
+            return direct;
+        }
+        return aStar(root, rootLength, c.blockedNext);
+    }
+
+    /** 标记（或清除）根路径上除偏离点以外的节点，偏离路径不能再经过它们。 */
+    private void markRoot(int[] nodes, int spurIndex, boolean blocked) {
+        for (int j = 0; j < spurIndex; j++) {
+            blockedNode[nodes[j]] = blocked;
+        }
+    }
+
+    /** 在允许的首边中选 w + distT[v] 最小的一条，返回其 CSR 下标，没有时返回 -1。 */
+    private int bestFirstEdge(int spur, int[] blockedNext) {
+        int bestEdge = -1;
+        long best = Long.MAX_VALUE;
+        for (int i = graph.outStart(spur); i < graph.outEnd(spur); i++) {
+            int v = graph.target(i);
+            if (distT[v] != UNREACHABLE && !blockedNode[v] && v != spur && !contains(blockedNext, v)) {
+                long cost = (long) graph.weight(i) + distT[v];
+                if (cost < best) {
+                    best = cost;
+                    bestEdge = i;
+                }
+            }
+        }
+        return bestEdge;
+    }
+
+    /** 从 start 沿 nextT 走到 target，途中经过屏蔽节点或偏离点 spur 时返回 null。 */
+    private WeightedPath treePath(int start, int[] root, int lengthSoFar, int spur) {
+        int[] nodes = Arrays.copyOf(root, root.length + 1 + pathLength(start));
+        int k = root.length;
+        for (int at = start; ; at = nextT[at]) {
+            if (blockedNode[at] || at == spur) {
+                return null;
+            }
+            nodes[k++] = at;
+            if (at == target) {
+                break;
+            }
+        }
+        return new WeightedPath(nodes, lengthSoFar + distT[start]);
+    }
+
+    private int pathLength(int start) {
+        int hops = 0;
+        for (int at = start; at != target; at = nextT[at]) {
+            hops++;
+        }
+        return hops;
+    }
+
+    /** 以 distT 为一致启发函数的 A*，从偏离点出发，避开根路径节点和被删除的首边。 */
+    private WeightedPath aStar(int[] root, int rootLength, int[] blockedNext) {
+        try {
+            return search(root, rootLength, blockedNext);
+        } finally {
+            heap.clear();
+            for (int i = 0; i < touchedCount; i++) {
+                int v = touched[i];
+                g[v] = UNREACHABLE;
+                f[v] = UNREACHABLE;
+                prev[v] = -1;
+            }
+            touchedCount = 0;
+        }
+    }
+
+    private WeightedPath search(int[] root, int rootLength, int[] blockedNext) {
+        int spur = root[root.length - 1];
+        touched[touchedCount++] = spur;
+        g[spur] = 0;
+        f[spur] = distT[spur];
+        heap.push(spur);
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+            if (u == target) {
+                int hops = 0;
+                for (int at = target; at != spur; at = prev[at]) {
+                    hops++;
+                }
+                int[] nodes = Arrays.copyOf(root, root.length + hops);
+                int k = nodes.length - 1;
+                for (int at = target; at != spur; at = prev[at]) {
+                    nodes[k--] = at;
+                }
+                return new WeightedPath(nodes, rootLength + g[target]);
+            }
+            for (int i = graph.outStart(u); i < graph.outEnd(u); i++) {
+                int v = graph.target(i);
+                if (blockedNode[v] || distT[v] == UNREACHABLE || (u == spur && contains(blockedNext, v))) {
+                    continue;
+                }
+                int candidate = g[u] + graph.weight(i);
+                if (candidate < g[v]) {
+                    if (g[v] == UNREACHABLE) {
+                        touched[touchedCount++] = v;
+                    }
+                    g[v] = candidate;
+                    f[v] = candidate + distT[v];
+                    prev[v] = u;
+                    heap.pushOrDecrease(v);
+                }
+            }
+        }
+        return null;
+    }
+
+    private void reverseTree() {
+        Arrays.fill(distT, UNREACHABLE);
+        Arrays.fill(nextT, -1);
+        distT[target] = 0;
+        ShortestPaths.IndexedHeap heap = new ShortestPaths.IndexedHeap(distT);
+        heap.push(target);
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+            for (int i = graph.inStart(u); i < graph.inEnd(u); i++) {
+                int v = graph.source(i);
+                int candidate = distT[u] + graph.inWeight(i);
+                if (candidate < distT[v]) {
+                    distT[v] = candidate;
+                    nextT[v] = u;
+                    heap.pushOrDecrease(v);
+                }
+            }
+        }
+    }
+
+    private int rootLength(int[] nodes, int spurIndex) {
+        int length = 0;
+        for (int j = 0; j < spurIndex; j++) {
+            length += graph.weight(graph.edgeIndex(nodes[j], nodes[j + 1]));
+        }
+        return length;
+    }
+
+    private static boolean contains(int[] values, int v) {
+        for (int x : values) {
+            if (x == v) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
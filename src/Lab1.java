@@ -4,12 +4,46 @@ import java.io.*;
 import java.nio.file.*;
 import java.util.*;
 import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 public class Lab1 {
-    private static final Map<String, Map<String, Integer>> graph = new HashMap<>();
+    private static final int LARGE_DOT_EDGES = 5000;
+    private static final int DEFAULT_TOP = 20;
+    private static final GraphStore store = new GraphStore(WordGraph.EMPTY);
+    private static LiveGraph live;
     private static final Random random = new Random();
+    private static final PageRank.WarmStart pageRankCache = new PageRank.WarmStart();
+    private static final Metrics metrics = new Metrics();
 
     public static void main(String[] args) throws IOException {
+        if (args.length > 0 && args[0].equals("--batch")) {
+            runBatch(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--serve")) {
+            serve(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--corpus")) {
+            generateCorpus(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--scale")) {
+            runScaling(args);
+            return;
+        }
+        int top = DEFAULT_TOP;
+        if (args.length == 2 && args[0].equals("--top")) {
+            try {
+                top = Integer.parseInt(args[1]);
+                if (top < 1) throw new NumberFormatException();
+            } catch (NumberFormatException e) {
+                exitWithUsage("--top 必须是正整数");
+            }
+        } else if (args.length > 0) {
+            exitWithUsage("用法：java Lab1 [--top N] | --batch ... | --serve ... | --corpus ... | --scale ...");
+        }
         String path = chooseFilePath();
         if (path == null) {
             System.out.println("未选择文件，程序退出。");
@@ -19,9 +53,16 @@ public class Lab1 {
 
         Scanner scanner = new Scanner(System.in);
         while (true) {
-            System.out.println("\n请选择功能：\n1. 展示图\n2. 查询桥接词\n3. 生成新文本\n4. 最短路径\n5. PageRank\n6. 随机游走\n7. 退出");
+            System.out.println("\n请选择功能：\n1. 展示图\n2. 查询桥接词\n3. 生成新文本\n4. 最短路径\n5. PageRank\n6. 随机游走\n7. 退出\n8. 改写文件\n9. 前 K 条最短路径\n10. 个性化 PageRank\n11. 批量随机游走\n12. 追加文本\n13. 读取文件新增内容\n14. 运行统计（stats）");
             switch (scanner.nextLine()) {
-                case "1" -> showDirectedGraph(graph);
+                case "1" -> {
+                    System.out.print("剪枝选项（留空输出完整图，如 top=100 rank=degree min=2 center=the hops=2）：");
+                    try (GraphStore.Pin pin = store.pin()) {
+                        showDirectedGraph(pin.graph(), DotWriter.Options.parse(scanner.nextLine()));
+                    } catch (IllegalArgumentException e) {
+                        System.out.println(e.getMessage());
+                    }
+                }
                 case "2" -> {
                     System.out.print("输入word1: ");
                     String w1 = scanner.nextLine().toLowerCase();
@@ -42,14 +83,13 @@ public class Lab1 {
                 }
                 case "5" -> {
                     System.out.print("输入阻尼因子（如 0.85）：");
-                    try {
+                    try (GraphStore.Pin pin = store.pin()) {
                         double d = Double.parseDouble(scanner.nextLine());
                         if (d < 0 || d > 1) throw new NumberFormatException();
-                        Map<String, Double> pr = calPageRank(d);
-                        System.out.println("所有单词的 PageRank 值：");
-                        pr.entrySet().stream()
-                                .sorted((e1, e2) -> Double.compare(e2.getValue(), e1.getValue()))
-                                .forEach(e -> System.out.printf("%-15s : %.6f\n", e.getKey(), e.getValue()));
+                        PageRank.Result result = pageRank(pin.graph(), d);
+                        System.out.printf("迭代 %d 次（热启动节省 %d 次），残差 %.2e\n",
+                                result.iterations(), result.iterationsSaved(), result.residual());
+                        printRanking(scanner, pin.graph(), result, top);
                     } catch (NumberFormatException e) {
                         System.out.println("阻尼因子必须是 0 到 1 之间的小数！");
                     }
@@ -59,11 +99,216 @@ public class Lab1 {
                     System.out.println("程序退出。");
                     return;
                 }
+                case "8" -> {
+                    System.out.print("输入文件路径：");
+                    String in = scanner.nextLine();
+                    System.out.print("输出文件路径：");
+                    String out = scanner.nextLine();
+                    System.out.print("随机种子（留空则随机）：");
+                    String seed = scanner.nextLine().trim();
+                    try {
+                        TextRewriter.Stats stats = generateNewTextFile(in, out,
+                                seed.isEmpty() ? random.nextLong() : Long.parseLong(seed));
+                        System.out.printf("已写入 %s：%d 句，%.2f MB/s\n", out, stats.sentences(), stats.megabytesPerSecond());
+                    } catch (IOException | NumberFormatException e) {
+                        System.out.println("改写失败：" + e.getMessage());
+                    }
+                }
+                case "9" -> {
+                    System.out.print("输入起点：");
+                    String w1 = scanner.nextLine().toLowerCase();
+                    System.out.print("输入终点：");
+                    String w2 = scanner.nextLine().toLowerCase();
+                    System.out.print("输入 K：");
+                    try {
+                        int k = Integer.parseInt(scanner.nextLine().trim());
+                        if (k < 1) throw new NumberFormatException();
+                        System.out.println(calcKShortestPaths(w1, w2, k));
+                    } catch (NumberFormatException e) {
+                        System.out.println("K 必须是正整数！");
+                    }
+                }
+                case "10" -> {
+                    System.out.print("输入种子词：");
+                    String seed = scanner.nextLine().toLowerCase();
+                    System.out.print("输入阻尼因子（如 0.85）：");
+                    try (GraphStore.Pin pin = store.pin()) {
+                        double d = Double.parseDouble(scanner.nextLine());
+                        if (d < 0 || d >= 1) throw new NumberFormatException();
+                        if (!pin.graph().contains(seed)) {
+                            System.out.println("No \"" + seed + "\" in the graph!");
+                        } else {
+                            PersonalizedPageRank.Result result = personalizedPageRank(pin.graph(), seed, d);
+                            System.out.println(result.summary());
+                            result.top(pin.graph(), top).forEach((w, score) -> System.out.printf("%-15s : %.6f\n", w, score));
+                        }
+                    } catch (NumberFormatException e) {
+                        System.out.println("阻尼因子必须是 [0, 1) 之间的小数！");
+                    }
+                }
+                case "11" -> {
+                    System.out.print("游走条数：");
+                    try {
+                        int count = Integer.parseInt(scanner.nextLine().trim());
+                        if (count < 1) throw new NumberFormatException();
+                        System.out.print("按边的出现次数加权？(y/n)：");
+                        boolean weighted = scanner.nextLine().trim().equalsIgnoreCase("y");
+                        long start = System.nanoTime();
+                        List<String> walks = randomWalks(count, weighted);
+                        double seconds = (System.nanoTime() - start) / 1e9;
+                        Files.write(Path.of("random_walks.txt"), walks);
+                        System.out.printf("已生成 %d 条游走（%.0f 条/秒），写入 random_walks.txt\n", walks.size(),
+                                walks.size() / seconds);
+                    } catch (NumberFormatException e) {
+                        System.out.println("游走条数必须是正整数！");
+                    } catch (IOException e) {
+                        System.out.println("写入 random_walks.txt 失败：" + e.getMessage());
+                    }
+                }
+                case "12" -> {
+                    System.out.print("输入要追加的文本：");
+                    System.out.println(appendText(scanner.nextLine()));
+                }
+                case "13" -> {
+                    try {
+                        System.out.println(pollFile());
+                    } catch (IOException e) {
+                        System.out.println("读取失败：" + e.getMessage());
+                    }
+                }
+                case "14", "stats" -> System.out.print(stats());
                 default -> System.out.println("无效输入。");
             }
         }
     }
 
+    /**
+     * 无界面批量模式：java Lab1 --batch &lt;语料文件&gt; [脚本文件] [--seed N]。
+     * 不给脚本文件（或给出 -）时从标准输入读取，结果按脚本顺序写到标准输出，统计信息写到标准错误。
+     */
+    static void runBatch(String[] args) throws IOException {
+        List<String> positional = new ArrayList<>();
+        long seed = random.nextLong();
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--seed") && i + 1 < args.length) {
+                seed = Long.parseLong(args[++i]);
+            } else {
+                positional.add(args[i]);
+            }
+        }
+        if (positional.isEmpty() || positional.size() > 2) {
+            System.err.println("用法：java Lab1 --batch <语料文件> [脚本文件] [--seed N]");
+            System.exit(2);
+        }
+        long start = System.nanoTime();
+        WordGraph corpus = GraphSnapshot.loadOrParse(Path.of(positional.get(0)));
+        long loaded = System.nanoTime();
+        String script = positional.size() > 1 ? positional.get(1) : "-";
+        try (BufferedReader in = script.equals("-")
+                ? new BufferedReader(new InputStreamReader(System.in, java.nio.charset.StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Path.of(script));
+             Writer out = new BufferedWriter(new OutputStreamWriter(System.out, java.nio.charset.StandardCharsets.UTF_8),
+                     1 << 16)) {
+            long commands = new BatchMode(corpus).run(in, out, seed);
+            double seconds = (System.nanoTime() - loaded) / 1e9;
+            System.err.printf("加载 %.0f ms，执行 %d 条命令，%.0f 条/秒\n", (loaded - start) / 1e6, commands,
+                    commands / seconds);
+        }
+    }
+
+    /** 本机查询服务：java Lab1 --serve &lt;语料文件&gt; [--port N]，默认端口 8080，只监听 127.0.0.1。 */
+    static void serve(String[] args) throws IOException {
+        if (args.length != 2 && !(args.length == 4 && args[2].equals("--port"))) {
+            System.err.println("用法：java Lab1 --serve <语料文件> [--port N]");
+            System.exit(2);
+        }
+        QueryServer server = new QueryServer(Path.of(args[1]));
+        server.start(args.length == 4 ? Integer.parseInt(args[3]) : 8080);
+        Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+        WordGraph corpus = server.store().read(g -> g);
+        System.out.printf("已加载 %d 个词、%d 条边，在 http://127.0.0.1:%d/ 上提供查询（Ctrl+C 退出）\n",
+                corpus.size(), corpus.edgeCount(), server.port());
+    }
+
+    /** 生成 Zipf 分布的合成语料：java Lab1 --corpus &lt;输出文件&gt; [--size 64M] [--vocab 50000] [--zipf 1.0] [--seed 42]。 */
+    static void generateCorpus(String[] args) throws IOException {
+        String usage = "用法：java Lab1 --corpus <输出文件> [--size 64M] [--vocab N] [--zipf s] [--seed N]";
+        Map<String, String> flags = new HashMap<>();
+        List<String> positional = flags(args, Set.of("--size", "--vocab", "--zipf", "--seed"), flags, usage);
+        if (positional.size() != 1) {
+            exitWithUsage(usage);
+        }
+        try {
+            CorpusGenerator.Options options = corpusOptions(flags)
+                    .withBytes(CorpusGenerator.parseSize(flags.getOrDefault("--size", "64M")));
+            long start = System.nanoTime();
+            CorpusGenerator.Stats stats = CorpusGenerator.write(options, Path.of(positional.get(0)));
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("已写出 %d 字节、%d 个词、%d 句，%.1f MB/秒\n", stats.bytes(), stats.words(),
+                    stats.sentences(), stats.bytes() / (1024.0 * 1024.0) / seconds);
+        } catch (IllegalArgumentException e) {
+            exitWithUsage(e.getMessage());
+        }
+    }
+
+    /**
+     * 规模测试：java Lab1 --scale [--sizes 1M,4M,16M,64M] [--runs 5] [--out scaling] [--vocab N] [--zipf s] [--seed N]。
+     * 结果写到输出目录下的 scaling.csv 与 scaling.svg。
+     */
+    static void runScaling(String[] args) throws IOException {
+        String usage = "用法：java Lab1 --scale [--sizes 1M,4M,16M,64M] [--runs N] [--out 目录] [--vocab N] [--zipf s] [--seed N]";
+        Map<String, String> flags = new HashMap<>();
+        List<String> positional = flags(args,
+                Set.of("--sizes", "--runs", "--out", "--vocab", "--zipf", "--seed"), flags, usage);
+        if (!positional.isEmpty()) {
+            exitWithUsage(usage);
+        }
+        try {
+            long[] sizes = Arrays.stream(flags.getOrDefault("--sizes", "1M,4M,16M,64M").split(","))
+                    .mapToLong(CorpusGenerator::parseSize).toArray();
+            int runs = Integer.parseInt(flags.getOrDefault("--runs", "5"));
+            Path out = Path.of(flags.getOrDefault("--out", "scaling"));
+            new ScalingHarness(corpusOptions(flags), runs, out).run(sizes, System.out);
+            System.out.println("结果已写入 " + out.resolve("scaling.csv") + " 与 " + out.resolve("scaling.svg"));
+        } catch (IllegalArgumentException e) {
+            exitWithUsage(e.getMessage());
+        }
+    }
+
+    private static CorpusGenerator.Options corpusOptions(Map<String, String> flags) {
+        CorpusGenerator.Options defaults = CorpusGenerator.Options.of(0);
+        return new CorpusGenerator.Options(
+                flags.containsKey("--vocab") ? Integer.parseInt(flags.get("--vocab")) : defaults.vocabulary(),
+                flags.containsKey("--zipf") ? Double.parseDouble(flags.get("--zipf")) : defaults.exponent(),
+                0,
+                flags.containsKey("--seed") ? Long.parseLong(flags.get("--seed")) : defaults.seed());
+    }
+
+    /** 把 args[1..] 中的 "--名称 值" 收集到 flags，返回其余的位置参数；出现未知或缺少值的选项时退出。 */
+    private static List<String> flags(String[] args, Set<String> known, Map<String, String> flags, String usage) {
+        List<String> positional = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            if (!args[i].startsWith("--")) {
+                positional.add(args[i]);
+            } else if (known.contains(args[i]) && i + 1 < args.length) {
+                flags.put(args[i], args[++i]);
+            } else {
+                exitWithUsage(usage);
+            }
+        }
+        return positional;
+    }
+
+    private static void exitWithUsage(String message) {
+        System.err.println(message);
+        System.exit(2);
+    }
+
+    /** 当前加载的图，供规模测试在 parseTextToGraph 之后固定版本。 */
+    static GraphStore store() {
+        return store;
+    }
+
     public static String chooseFilePath() {
         JFileChooser fileChooser = new JFileChooser();
         fileChooser.setDialogTitle("选择文本文件");
@@ -74,34 +319,69 @@ public class Lab1 {
         return null;
     }
 
+    /** 读入文件，把其中的词与边累加到当前图上；之后追加与轮询针对这个文件。 */
     static void parseTextToGraph(String filePath) throws IOException {
-        String content = Files.readString(Path.of(filePath)).replaceAll("[^a-zA-Z\\s]", " ").toLowerCase();
-        String[] words = content.trim().split("\\s+");
+        metrics.time("parse", filePath, () -> {
+            live = LiveGraph.open(Path.of(filePath), live == null ? WordGraph.EMPTY : live.graph());
+            store.publish(live.graph());
+            metrics.graph(live.graph());
+            return null;
+        });
+    }
 
-        for (int i = 0; i < words.length - 1; i++) {
-            graph.putIfAbsent(words[i], new HashMap<>());
-            Map<String, Integer> edges = graph.get(words[i]);
-            edges.put(words[i + 1], edges.getOrDefault(words[i + 1], 0) + 1);
-        }
+    /** 丢弃已读入的图，下一次 parseTextToGraph 从空图开始。 */
+    static void clearGraph() {
+        live = null;
+        store.publish(WordGraph.EMPTY);
+        metrics.graph(WordGraph.EMPTY);
+    }
 
-        // 确保最后一个词也加入图中，防止只作为终点却无法识别
-        if (words.length > 0) {
-            graph.putIfAbsent(words[words.length - 1], new HashMap<>());
-        }
+    /** 把一段文本接在已读入文本之后加入图中，只切分新文本；返回本次变化的摘要。 */
+    public static String appendText(String text) {
+        if (live == null) return "尚未加载文件！";
+        return metrics.time("append", text, () -> apply(live.append(text)));
     }
 
-    public static void showDirectedGraph(Map<String, Map<String, Integer>> G) {
-        StringBuilder dot = new StringBuilder("digraph G {\n");
-        for (String from : G.keySet()) {
-            for (var to : G.get(from).entrySet()) {
-                dot.append(String.format("    \"%s\" -> \"%s\" [label=\"%d\"];\n", from, to.getKey(), to.getValue()));
-            }
-        }
-        dot.append("}");
+    /** 读取源文件自上次以来新增的内容并加入图中。 */
+    public static String pollFile() throws IOException {
+        if (live == null) return "尚未加载文件！";
+        return metrics.time("append", "poll", () -> apply(live.poll()));
+    }
+
+    /** 各项操作的耗时分布与当前图的规模。 */
+    public static String stats() {
+        return metrics.report();
+    }
+
+    /** 追加得到的新图在旁边构建完成后才发布，正在进行的查询继续使用它们固定的旧版本。 */
+    private static String apply(LiveGraph.Delta delta) {
+        WordGraph graph = delta.after();
+        store.publish(graph);
+        metrics.graph(graph);
+        if (delta.changed() == null) return "源文件被截断，已重新解析：" + graph.size() + " 个词，" + graph.edgeCount() + " 条边";
+        return String.format("新增 %d 个词、%d 条边，%d 条边权重增加", delta.addedWords(), delta.addedEdges(),
+                delta.changed().length - delta.addedEdges());
+    }
+
+    public static void showDirectedGraph(WordGraph G) {
+        showDirectedGraph(G, DotWriter.Options.ALL);
+    }
+
+    /** 按剪枝选项流式写出 graph.dot 并调用 dot 渲染为 graph.png。 */
+    public static void showDirectedGraph(WordGraph G, DotWriter.Options options) {
+        metrics.time("dot", options.toString(), () -> {
+            renderGraph(G, options);
+            return null;
+        });
+    }
 
+    private static void renderGraph(WordGraph G, DotWriter.Options options) {
         try {
-            Files.writeString(Path.of("graph.dot"), dot.toString());
-            System.out.println("DOT 文件已生成：graph.dot");
+            DotWriter.Stats stats = DotWriter.write(G, options, pageRankCache, Path.of("graph.dot"), Progress.NONE);
+            System.out.printf("DOT 文件已生成：graph.dot（%d 个节点，%d 条边）\n", stats.nodes(), stats.edges());
+            if (stats.edges() > LARGE_DOT_EDGES) {
+                System.out.println("边数较多，dot 布局可能很慢，可以使用 top / min / center 选项剪枝。");
+            }
 
             ProcessBuilder pb = new ProcessBuilder("dot", "-Tpng", "graph.dot", "-o", "graph.png");
             pb.inheritIO();
@@ -109,158 +389,120 @@ public class Lab1 {
             process.waitFor();
             System.out.println("图已生成为 graph.png，即将打开！");
             Desktop.getDesktop().open(new File("graph.png"));
-        } catch (IOException | InterruptedException e) {
+        } catch (IOException | InterruptedException | IllegalArgumentException e) {
             System.out.println("生成图失败：" + e.getMessage());
         }
     }
 
-    private static boolean inGraph(String word) {
-        if (graph.containsKey(word)) return true;
-        for (Map<String, Integer> edges : graph.values()) {
-            if (edges.containsKey(word)) return true;
-        }
-        return false;
+    public static String queryBridgeWords(String word1, String word2) {
+        return query("bridge", word1 + " " + word2, g -> GraphQueries.bridgeWords(g, word1, word2));
     }
 
-    public static String queryBridgeWords(String word1, String word2) {
-        boolean hasWord1 = inGraph(word1);
-        boolean hasWord2 = inGraph(word2);
+    /** 在固定的当前版本上计时执行一次查询。 */
+    private static <T> T query(String operation, String arguments, Function<WordGraph, T> body) {
+        return metrics.time(operation, arguments, () -> store.read(body));
+    }
 
-        if (!hasWord1 && !hasWord2) {
-            return "No \"" + word1 + "\" and \"" + word2 + "\" in the graph!";
-        }
-        if (!hasWord1) return "No \"" + word1 + "\" in the graph!";
-        if (!hasWord2) return "No \"" + word2 + "\" in the graph!";
+    /** 返回的流在关闭前一直固定着调用时的版本。 */
+    public static Stream<BridgeQueries.Result> queryBridgeWordsBatch(Stream<BridgeQueries.Query> pairs) {
+        GraphStore.Pin pin = store.pin();
+        return BridgeQueries.query(pin.graph(), pairs).onClose(pin::close);
+    }
 
-        if (!graph.containsKey(word1)) {
-            return "No bridge words from \"" + word1 + "\" to \"" + word2 + "\"!";
-        }
+    public static String generateNewText(String inputText) {
+        return query("generate", inputText, g -> GraphQueries.generateNewText(g, inputText, random));
+    }
 
-        Set<String> bridges = new HashSet<>();
-        for (String mid : graph.get(word1).keySet()) {
-            if (graph.containsKey(mid) && graph.get(mid).containsKey(word2)) {
-                bridges.add(mid);
+    public static TextRewriter.Stats generateNewTextFile(String inputPath, String outputPath, long seed) throws IOException {
+        return metrics.time("rewrite", inputPath + " -> " + outputPath, () -> {
+            try (GraphStore.Pin pin = store.pin()) {
+                return TextRewriter.rewrite(pin.graph(), Path.of(inputPath), Path.of(outputPath), seed);
             }
-        }
+        });
+    }
 
-        if (bridges.isEmpty()) {
-            return "No bridge words from \"" + word1 + "\" to \"" + word2 + "\"!";
-        }
+    public static String calcShortestPath(String word1, String word2) {
+        return query("path", word1 + " " + word2, g -> GraphQueries.shortestPath(g, word1, word2));
+    }
 
-        List<String> bridgeList = new ArrayList<>(bridges);
-        String result;
-        if (bridgeList.size() == 1) {
-            result = bridgeList.getFirst();
-        } else if (bridgeList.size() == 2) {
-            result = bridgeList.get(0) + " and " + bridgeList.get(1);
-        } else {
-            result = String.join(", ", bridgeList.subList(0, bridgeList.size() - 1))
-                    + ", and " + bridgeList.getLast();
-        }
+    public static String calcKShortestPaths(String word1, String word2, int k) {
+        return query("kpaths", word1 + " " + word2 + " k=" + k, g -> GraphQueries.kShortestPaths(g, word1, word2, k));
+    }
 
-        return "The bridge words from \"" + word1 + "\" to \"" + word2 + "\" are: " + result + ".";
+    public static Map<String, Double> calPageRank(double dampingFactor) {
+        return store.read(g -> pageRank(g, dampingFactor).toMap(g));
     }
 
-    public static String generateNewText(String inputText) {
-        String[] words = inputText.toLowerCase().replaceAll("[^a-zA-Z\\s]", " ").split("\\s+");
-        StringBuilder result = new StringBuilder(words[0]);
-        for (int i = 0; i < words.length - 1; i++) {
-            String w1 = words[i], w2 = words[i + 1];
-            Set<String> bridges = new HashSet<>();
-            if (graph.containsKey(w1)) {
-                for (String mid : graph.get(w1).keySet()) {
-                    if (graph.containsKey(mid) && graph.get(mid).containsKey(w2)) bridges.add(mid);
-                }
+    /** 分数最高的 k 个词，按分数降序；只用大小为 k 的堆挑选，不对全部词排序。 */
+    public static Map<String, Double> calPageRankTop(double dampingFactor, int k) {
+        return store.read(g -> {
+            PageRank.Result result = pageRank(g, dampingFactor);
+            Map<String, Double> top = new LinkedHashMap<>();
+            for (int v : result.top(k)) {
+                top.put(g.word(v), result.scores()[v]);
             }
-            if (!bridges.isEmpty()) {
-                List<String> bridgeList = new ArrayList<>(bridges);
-                String bridge = bridgeList.get(random.nextInt(bridgeList.size()));
-                result.append(" ").append(bridge);
-            }
-            result.append(" ").append(w2);
-        }
-        return result.toString();
+            return top;
+        });
     }
 
-    public static String calcShortestPath(String word1, String word2) {
-        if (!graph.containsKey(word1)) return "No \"" + word1 + "\" in the graph!";
-        if (!graph.containsKey(word2)) return "No \"" + word2 + "\" in the graph!";
-        Map<String, Integer> dist = new HashMap<>();
-        Map<String, String> prev = new HashMap<>();
-        PriorityQueue<String> pq = new PriorityQueue<>(Comparator.comparingInt(dist::get));
-        for (String node : graph.keySet()) dist.put(node, Integer.MAX_VALUE);
-        dist.put(word1, 0);
-        pq.add(word1);
-
-        while (!pq.isEmpty()) {
-            String u = pq.poll();
-            if (!graph.containsKey(u)) continue;
-            for (var e : graph.get(u).entrySet()) {
-                String v = e.getKey();
-                int weight = e.getValue();
-                if (dist.get(u) + weight < dist.getOrDefault(v, Integer.MAX_VALUE)) {
-                    dist.put(v, dist.get(u) + weight);
-                    prev.put(v, u);
-                    pq.add(v);
-                }
+    /**
+     * 每页 pageSize 个词分页显示排名。第 p 页只用堆挑出前 p × pageSize 个，并且只格式化这一页，
+     * 大词表也不会一次把所有词打印到终端。
+     */
+    private static void printRanking(Scanner scanner, WordGraph graph, PageRank.Result result, int pageSize) {
+        int shown = 0;
+        while (shown < graph.size()) {
+            int[] top = result.top(shown + pageSize);
+            for (int i = shown; i < top.length; i++) {
+                System.out.printf("%5d. %-15s : %.6f\n", i + 1, graph.word(top[i]), result.scores()[top[i]]);
+            }
+            shown = top.length;
+            if (shown >= graph.size()) {
+                break;
+            }
+            System.out.printf("已显示 %d / %d 个词，回车显示下一页，输入 q 返回：", shown, graph.size());
+            if (scanner.nextLine().trim().equalsIgnoreCase("q")) {
+                break;
             }
         }
+    }
 
-        if (!dist.containsKey(word2) || dist.get(word2) == Integer.MAX_VALUE)
-            return "No path from \"" + word1 + "\" to \"" + word2 + "\"";
-
-        LinkedList<String> path = new LinkedList<>();
-        for (String at = word2; at != null; at = prev.get(at)) path.addFirst(at);
-        return "Shortest path: " + String.join(" -> ", path) + "\nLength: " + dist.get(word2);
+    private static PageRank.Result pageRank(WordGraph graph, double dampingFactor) {
+        return metrics.time("pagerank", "d=" + dampingFactor,
+                () -> pageRankCache.compute(graph, PageRank.Options.of(dampingFactor)));
     }
 
-    public static Map<String, Double> calPageRank(double dampingFactor) {
-        final int maxIter = 100;
-        final double tol = 1e-6;
-        Set<String> nodes = graph.keySet();
-        Map<String, Double> pr = new HashMap<>();
-        for (String n : nodes) pr.put(n, 1.0 / nodes.size());
-
-        for (int it = 0; it < maxIter; it++) {
-            Map<String, Double> next = new HashMap<>();
-            for (String n : nodes) next.put(n, (1 - dampingFactor) / nodes.size());
-
-            for (String u : graph.keySet()) {
-                Map<String, Integer> out = graph.get(u);
-                if (out.isEmpty()) continue;
-                double share = pr.get(u) / out.size();
-                for (String v : out.keySet()) {
-                    next.put(v, next.getOrDefault(v, 0.0) + dampingFactor * share);
-                }
-            }
+    /** 以 seedWord 为中心的个性化 PageRank（蒙特卡洛估计），按分数降序返回所有被游走到的词；种子不在图中时返回空表。 */
+    public static Map<String, Double> calPersonalizedPageRank(String seedWord, double dampingFactor) {
+        return store.read(g -> g.contains(seedWord)
+                ? personalizedPageRank(g, seedWord, dampingFactor).top(g, g.size())
+                : new LinkedHashMap<>());
+    }
 
-            double delta = 0.0;
-            for (String n : nodes) delta += Math.abs(next.get(n) - pr.get(n));
-            pr = next;
-            if (delta < tol) break;
-        }
-        return pr;
+    private static PersonalizedPageRank.Result personalizedPageRank(WordGraph graph, String seedWord,
+                                                                    double dampingFactor) {
+        return metrics.time("ppr", seedWord + " d=" + dampingFactor, () -> PersonalizedPageRank.estimate(graph,
+                graph.id(seedWord), PersonalizedPageRank.Options.of(dampingFactor), random.nextLong()));
     }
 
     public static String randomWalk() {
-        StringBuilder sb = new StringBuilder();
-        Set<String> visitedEdges = new HashSet<>();
-        List<String> keys = new ArrayList<>(graph.keySet());
-        if (keys.isEmpty()) return "";
-        String current = keys.get(random.nextInt(keys.size()));
-        sb.append(current);
-        while (graph.containsKey(current) && !graph.get(current).isEmpty()) {
-            List<String> nextNodes = new ArrayList<>(graph.get(current).keySet());
-            String next = nextNodes.get(random.nextInt(nextNodes.size()));
-            String edge = current + "->" + next;
-            if (visitedEdges.contains(edge)) break;
-            visitedEdges.add(edge);
-            sb.append(" ").append(next);
-            current = next;
-        }
+        String result = query("walk", "", g -> GraphQueries.randomWalk(g, random));
+        if (result.isEmpty()) return "";
         try {
-            Files.writeString(Path.of("random_walk.txt"), sb.toString());
+            Files.writeString(Path.of("random_walk.txt"), result);
         } catch (IOException ignored) {}
-        return sb.toString();
+        return result;
+    }
+
+    /** 并行生成 count 条随机游走，停止规则与 randomWalk 相同；weighted 为 true 时按边的出现次数选择出边。 */
+    public static List<String> randomWalks(int count, boolean weighted) {
+        return query("walks", "count=" + count + (weighted ? " weighted" : ""), g -> {
+            int[][] walks = RandomWalks.generate(g, count, weighted, random.nextLong());
+            List<String> result = new ArrayList<>(walks.length);
+            for (int[] walk : walks) {
+                result.add(String.join(" ", GraphQueries.words(g, walk)));
+            }
+            return result;
+        });
     }
 }
@@ -4,16 +4,23 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.PriorityQueue;
 import java.util.Random;
-import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
 import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyDoubleWrapper;
+import javafx.beans.property.ReadOnlyIntegerWrapper;
+import javafx.beans.property.ReadOnlyStringWrapper;
 import javafx.geometry.Insets;
 import javafx.scene.Node;
 import javafx.scene.Scene;
@@ -21,7 +28,12 @@ import javafx.scene.control.Accordion;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
 import javafx.scene.control.ButtonType;
+import javafx.scene.control.CheckBox;
 import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.control.TableCell;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
 import javafx.scene.control.TextArea;
 import javafx.scene.control.TextField;
 import javafx.scene.control.TitledPane;
@@ -30,11 +42,21 @@ import javafx.scene.layout.VBox;
 import javafx.scene.text.Font;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 
 
 public class Lab1FX extends Application {
-    private static final Map<String, Map<String, Integer>> graph = new HashMap<>();
+    private static final GraphStore store = new GraphStore(WordGraph.EMPTY);
+    private static LiveGraph live;
     private static final Random random = new Random();
+    private static final PageRank.WarmStart pageRankCache = new PageRank.WarmStart();
+    private static final ShortestPaths.TreeCache pathCache = new ShortestPaths.TreeCache(64L << 20);
+    private static final Metrics metrics = new Metrics();
+    /** 计算任务用平台线程（内部还会用到公共 ForkJoinPool），读写文件、等待 dot 进程等阻塞任务用虚拟线程。 */
+    private static final ExecutorService COMPUTE = Executors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors(), Thread.ofPlatform().daemon().name("lab1fx-compute-", 0).factory());
+    private static final ExecutorService BLOCKING = Executors.newVirtualThreadPerTaskExecutor();
+    private final BackgroundJobs jobs = new BackgroundJobs(Platform::runLater);
     private TextArea outputArea;
 
     public static void main(String[] args) {
@@ -59,12 +81,14 @@ public class Lab1FX extends Application {
 
         Accordion accordion = new Accordion();
         accordion.getPanes().addAll(
-                createTitledPane("1. 展示图", createButton("展示图", this::handleShowGraph)),
-                createTitledPane("2. 查询桥接词", createBridgeQueryUI()),
-                createTitledPane("3. 生成新文本", createTextGenUI()),
-                createTitledPane("4. 最短路径", createShortestPathUI()),
-                createTitledPane("5. PageRank", createPageRankUI()),
-                createTitledPane("6. 随机游走", createButton("随机游走", this::handleRandomWalk))
+                createTitledPane("1. 展示图", createShowGraphUI(), "dot"),
+                createTitledPane("2. 查询桥接词", createBridgeQueryUI(), "bridge"),
+                createTitledPane("3. 生成新文本", createTextGenUI(), "generate"),
+                createTitledPane("4. 最短路径", createShortestPathUI(), "path"),
+                createTitledPane("5. PageRank", createPageRankUI(), "pagerank"),
+                createTitledPane("6. 随机游走", createRandomWalkUI(), "walk"),
+                createTitledPane("7. 追加文本", createAppendUI(), "append"),
+                createMetricsUI()
         );
 
         VBox layout = new VBox(15, accordion, new Label("输出结果："), outputArea);
@@ -75,6 +99,11 @@ public class Lab1FX extends Application {
         primaryStage.show();
     }
 
+    @Override
+    public void stop() {
+        jobs.cancelAll();
+    }
+
     private File chooseFile(Stage stage) {
         FileChooser chooser = new FileChooser();
         chooser.setTitle("选择输入文本文件");
@@ -96,21 +125,99 @@ public class Lab1FX extends Application {
         return btn;
     }
 
-    private TitledPane createTitledPane(String title, Node content) {
-        VBox box = new VBox(content);
+    private TitledPane createTitledPane(String title, Node content, String key) {
+        VBox box = new VBox(10, content, jobBar(key));
         box.setPadding(new Insets(10));
         return new TitledPane(title, box);
     }
 
+    private final Map<String, ProgressBar> progressBars = new HashMap<>();
+    private final Map<String, Button> cancelButtons = new HashMap<>();
+
+    /** 每个面板一类操作（key），共用一个进度条和取消按钮。 */
+    private HBox jobBar(String key) {
+        ProgressBar bar = new ProgressBar(0);
+        bar.setPrefWidth(300);
+        bar.setVisible(false);
+        Button cancel = new Button("取消");
+        cancel.setDisable(true);
+        cancel.setOnAction(e -> jobs.cancel(key));
+        progressBars.put(key, bar);
+        cancelButtons.put(key, cancel);
+        return new HBox(10, bar, cancel);
+    }
+
+    private void setRunning(String key, boolean running) {
+        ProgressBar bar = progressBars.get(key);
+        bar.setProgress(ProgressBar.INDETERMINATE_PROGRESS);
+        bar.setVisible(running);
+        cancelButtons.get(key).setDisable(!running);
+    }
+
+    /**
+     * 在后台运行一次操作：args 相同的重复请求合并，同一面板上还有别的请求在运行时拒绝；
+     * 进度显示在面板的进度条上，中间结果与最终结果显示在输出框，失败时输出 failure + 异常信息。
+     * 每次运行以 key 为操作名计入运行统计，取消与失败计为失败。
+     */
+    private <T> BackgroundJobs.Submission runInBackground(String key, Object args, Executor executor,
+                                                          BackgroundJobs.Work<T> work, Consumer<T> onSuccess,
+                                                          String failure) {
+        return runInBackground(key, key, args, executor, work, onSuccess, failure);
+    }
+
+    /** 同一面板上耗时分布不同的操作（如前 K 条路径、个性化 PageRank）以 operation 单独计入运行统计。 */
+    private <T> BackgroundJobs.Submission runInBackground(String key, String operation, Object args, Executor executor,
+                                                          BackgroundJobs.Work<T> work, Consumer<T> onSuccess,
+                                                          String failure) {
+        BackgroundJobs.Work<T> timed = job -> metrics.time(operation, String.valueOf(args), () -> work.run(job));
+        BackgroundJobs.Submission submission = jobs.submit(key, args, executor, timed, new BackgroundJobs.Callbacks<>() {
+            @Override
+            public void progress(double fraction, String partial) {
+                progressBars.get(key).setProgress(fraction < 0 ? ProgressBar.INDETERMINATE_PROGRESS : fraction);
+                if (partial != null) {
+                    outputArea.setText(partial);
+                }
+            }
+
+            @Override
+            public void succeeded(T result) {
+                setRunning(key, false);
+                onSuccess.accept(result);
+            }
+
+            @Override
+            public void failed(Throwable error) {
+                setRunning(key, false);
+                if (error instanceof CancellationException) {
+                    outputArea.setText("已取消。");
+                } else {
+                    outputArea.setText(failure + "：" + error.getMessage());
+                }
+            }
+        });
+        switch (submission) {
+            case STARTED -> setRunning(key, true);
+            case COALESCED -> { }
+            case REJECTED -> outputArea.setText("上一个请求还在计算中，请等待完成或先取消。");
+        }
+        return submission;
+    }
+
+    private void runInBackground(String key, Object args, BackgroundJobs.Work<String> work) {
+        runInBackground(key, args, COMPUTE, work, outputArea::setText, "计算失败");
+    }
+
     private HBox createBridgeQueryUI() {
         TextField w1 = new TextField();
         w1.setPromptText("word1");
         TextField w2 = new TextField();
         w2.setPromptText("word2");
         Button queryBtn = new Button("查询");
-        queryBtn.setOnAction(e ->
-                outputArea.setText(queryBridgeWords(w1.getText().toLowerCase(), w2.getText().toLowerCase()))
-        );
+        queryBtn.setOnAction(e -> {
+            String word1 = w1.getText().toLowerCase();
+            String word2 = w2.getText().toLowerCase();
+            runInBackground("bridge", List.of(word1, word2), job -> queryBridgeWords(word1, word2));
+        });
         return new HBox(10, new Label("word1:"), w1, new Label("word2:"), w2, queryBtn);
     }
 
@@ -118,9 +225,10 @@ public class Lab1FX extends Application {
         TextField input = new TextField();
         input.setPromptText("输入一句话");
         Button genBtn = new Button("生成");
-        genBtn.setOnAction(e ->
-                outputArea.setText(generateNewText(input.getText()))
-        );
+        genBtn.setOnAction(e -> {
+            String text = input.getText();
+            runInBackground("generate", text, job -> generateNewText(text));
+        });
         return new HBox(10, new Label("输入:"), input, genBtn);
     }
 
@@ -130,14 +238,59 @@ public class Lab1FX extends Application {
         TextField to = new TextField();
         to.setPromptText("终点");
         Button pathBtn = new Button("计算");
-        pathBtn.setOnAction(e ->
-                outputArea.setText(calcShortestPath(from.getText().toLowerCase(), to.getText().toLowerCase()))
-        );
-        return new HBox(10, new Label("From:"), from, new Label("To:"), to, pathBtn);
+        Label cacheLabel = new Label();
+        pathBtn.setOnAction(e -> {
+            String word1 = from.getText().toLowerCase();
+            String word2 = to.getText().toLowerCase();
+            runInBackground("path", List.of(word1, word2), COMPUTE, job -> calcShortestPath(word1, word2, job),
+                    result -> {
+                        outputArea.setText(result);
+                        cacheLabel.setText(String.format("缓存 命中 %d / 未命中 %d", pathCache.hits(), pathCache.misses()));
+                    }, "计算失败");
+        });
+        TextField kInput = new TextField("5");
+        kInput.setPrefColumnCount(3);
+        Button kBtn = new Button("前 K 条");
+        kBtn.setOnAction(e -> {
+            try {
+                int k = Integer.parseInt(kInput.getText().trim());
+                if (k < 1) {
+                    throw new NumberFormatException();
+                }
+                String word1 = from.getText().toLowerCase();
+                String word2 = to.getText().toLowerCase();
+                runInBackground("path", "kpaths", List.of(word1, word2, k), COMPUTE,
+                        job -> calcKShortestPaths(word1, word2, k, job), outputArea::setText, "计算失败");
+            } catch (NumberFormatException ex) {
+                outputArea.setText("K 必须是正整数！");
+            }
+        });
+        return new HBox(10, new Label("From:"), from, new Label("To:"), to, pathBtn,
+                new Label("K:"), kInput, kBtn, cacheLabel);
+    }
+
+    /** 排名表的一行；分数只在单元格显示时才格式化。 */
+    private record RankRow(int rank, String word, double score) {
     }
 
-    private HBox createPageRankUI() {
+    /** 输出框中的摘要与排名表的内容。 */
+    private record Ranking(String summary, List<RankRow> rows) {
+    }
+
+    /**
+     * PageRank 结果放在 TableView 中：只用大小为 K 的堆挑出前 K 个词，
+     * 表格只为可见的行创建单元格，滚动时才格式化对应的分数。
+     */
+    private VBox createPageRankUI() {
         TextField dInput = new TextField("0.85");
+        TextField kInput = new TextField("100");
+        kInput.setPrefColumnCount(5);
+        TableView<RankRow> table = createRankTable();
+        Consumer<Ranking> show = ranking -> {
+            outputArea.setText(ranking.summary());
+            table.getItems().setAll(ranking.rows());
+            table.scrollTo(0);
+        };
         Button prBtn = new Button("计算");
         prBtn.setOnAction(e -> {
             try {
@@ -145,259 +298,371 @@ public class Lab1FX extends Application {
                 if (d < 0 || d > 1) {
                     throw new NumberFormatException();
                 }
-                var pr = calPageRank(d);
-                StringBuilder sb = new StringBuilder("PageRank 结果：\n");
-                pr.entrySet().stream()
-                        .sorted((a, b) -> Double.compare(b.getValue(), a.getValue()))
-                        .forEach(e2 -> sb.append(String.format("%-15s: %.6f%n", e2.getKey(), e2.getValue())));
-                outputArea.setText(sb.toString());
+                int k = topK(kInput);
+                runInBackground("pagerank", List.of(d, k), COMPUTE, job -> store.read(g -> {
+                    PageRank.Result result = pageRankCache.compute(g, PageRank.Options.of(d), job);
+                    int[] top = result.top(k);
+                    List<RankRow> rows = new ArrayList<>(top.length);
+                    for (int i = 0; i < top.length; i++) {
+                        rows.add(new RankRow(i + 1, g.word(top[i]), result.scores()[top[i]]));
+                    }
+                    return new Ranking(String.format("PageRank 结果（迭代 %d 次，热启动节省 %d 次，残差 %.2e）：前 %d / %d 个词见下表",
+                            result.iterations(), result.iterationsSaved(), result.residual(), rows.size(), g.size()), rows);
+                }), show, "计算失败");
             } catch (NumberFormatException ex) {
-                outputArea.setText("阻尼因子必须是 0 到 1 之间的小数！");
+                outputArea.setText("阻尼因子必须是 0 到 1 之间的小数，K 必须是正整数！");
             }
         });
-        return new HBox(10, new Label("阻尼因子:"), dInput, prBtn);
-    }
-
-    private void handleShowGraph() {
-        StringBuilder dot = new StringBuilder("digraph G {\n");
-        for (Map.Entry<String, Map<String, Integer>> entry : graph.entrySet()) {
-            String from = entry.getKey();
-            Map<String, Integer> neighbors = entry.getValue();
-            for (Map.Entry<String, Integer> toEntry : neighbors.entrySet()) {
-                String to = toEntry.getKey();
-                int weight = toEntry.getValue();
-                dot.append(String.format("  \"%s\" -> \"%s\" [label=\"%d\"];%n", from, to, weight));
+        TextField seedInput = new TextField();
+        seedInput.setPrefWidth(100);
+        Button pprBtn = new Button("个性化");
+        pprBtn.setOnAction(e -> {
+            try {
+                double d = Double.parseDouble(dInput.getText());
+                if (d < 0 || d >= 1) {
+                    throw new NumberFormatException();
+                }
+                int k = topK(kInput);
+                String seed = seedInput.getText().trim().toLowerCase();
+                if (!store.read(g -> g.contains(seed))) {
+                    outputArea.setText("No \"" + seed + "\" in the graph!");
+                    return;
+                }
+                runInBackground("pagerank", "ppr", List.of(seed, d, k), COMPUTE, job -> store.read(g -> {
+                    PersonalizedPageRank.Result result = PersonalizedPageRank.estimate(g, g.id(seed),
+                            PersonalizedPageRank.Options.of(d), random.nextLong(), job);
+                    List<RankRow> rows = new ArrayList<>();
+                    result.top(g, k).forEach((w, score) -> rows.add(new RankRow(rows.size() + 1, w, score)));
+                    return new Ranking(String.format("以 \"%s\" 为中心的个性化 PageRank（%s）：前 %d 个词见下表",
+                            seed, result.summary(), rows.size()), rows);
+                }), show, "计算失败");
+            } catch (NumberFormatException ex) {
+                outputArea.setText("个性化 PageRank 的阻尼因子必须是 [0, 1) 之间的小数，K 必须是正整数！");
             }
+        });
+        HBox controls = new HBox(10, new Label("阻尼因子:"), dInput, new Label("前 K 个:"), kInput, prBtn,
+                new Label("种子词:"), seedInput, pprBtn);
+        return new VBox(10, controls, table);
+    }
+
+    private static int topK(TextField input) {
+        int k = Integer.parseInt(input.getText().trim());
+        if (k < 1) {
+            throw new NumberFormatException();
         }
-        dot.append("}");
+        return k;
+    }
+
+    private TableView<RankRow> createRankTable() {
+        TableColumn<RankRow, Number> rank = new TableColumn<>("排名");
+        rank.setCellValueFactory(c -> new ReadOnlyIntegerWrapper(c.getValue().rank()));
+        TableColumn<RankRow, String> word = new TableColumn<>("单词");
+        word.setCellValueFactory(c -> new ReadOnlyStringWrapper(c.getValue().word()));
+        word.setPrefWidth(200);
+        TableColumn<RankRow, Number> score = new TableColumn<>("分数");
+        score.setCellValueFactory(c -> new ReadOnlyDoubleWrapper(c.getValue().score()));
+        score.setCellFactory(column -> new TableCell<>() {
+            @Override
+            protected void updateItem(Number value, boolean empty) {
+                super.updateItem(value, empty);
+                setText(empty || value == null ? null : String.format("%.6f", value.doubleValue()));
+            }
+        });
+        score.setPrefWidth(120);
+        TableView<RankRow> table = new TableView<>();
+        table.getColumns().addAll(List.of(rank, word, score));
+        table.setPlaceholder(new Label("点击“计算”后在这里显示排名"));
+        table.setPrefHeight(220);
+        return table;
+    }
 
+    private HBox createShowGraphUI() {
+        TextField options = new TextField();
+        options.setPromptText("剪枝选项，如 top=100 rank=degree min=2 center=the hops=2");
+        options.setPrefWidth(420);
+        Button showBtn = new Button("展示图");
+        showBtn.setOnAction(e -> handleShowGraph(options.getText()));
+        return new HBox(10, options, showBtn);
+    }
+
+    /** 写 DOT 文件、等待 dot 进程布局都是阻塞操作，放在虚拟线程上；取消时中断等待并结束 dot 进程。 */
+    private void handleShowGraph(String spec) {
+        DotWriter.Options options;
         try {
-            Files.writeString(Path.of("graph.dot"), dot.toString());
-            new ProcessBuilder("dot", "-Tpng", "graph.dot", "-o", "graph.png").start().waitFor();
-            Desktop.getDesktop().open(new File("graph.png"));
-            outputArea.setText("图生成成功，已打开 graph.png");
-        } catch (Exception e) {
+            options = DotWriter.Options.parse(spec);
+        } catch (IllegalArgumentException e) {
             outputArea.setText("图生成失败：" + e.getMessage());
+            return;
+        }
+        runInBackground("dot", options, BLOCKING, job -> {
+            DotWriter.Stats stats;
+            try (GraphStore.Pin pin = store.pin()) {
+                stats = DotWriter.write(pin.graph(), options, pageRankCache, Path.of("graph.dot"), job);
+            }
+            job.publish(String.format("已写出 graph.dot（%d 个节点，%d 条边），正在用 dot 布局……", stats.nodes(), stats.edges()));
+            Process dot = new ProcessBuilder("dot", "-Tpng", "graph.dot", "-o", "graph.png").start();
+            try {
+                if (dot.waitFor() != 0) {
+                    throw new IOException("dot 退出码 " + dot.exitValue());
+                }
+            } finally {
+                dot.destroy();
+            }
+            job.checkpoint();
+            Desktop.getDesktop().open(new File("graph.png"));
+            return stats;
+        }, stats -> outputArea.setText(String.format("图生成成功（%d 个节点，%d 条边），已打开 graph.png",
+                stats.nodes(), stats.edges())), "图生成失败");
+    }
+
+    private VBox createAppendUI() {
+        TextArea input = new TextArea();
+        input.setPrefRowCount(3);
+        input.setWrapText(true);
+        Button appendBtn = new Button("追加");
+        appendBtn.setOnAction(e -> {
+            String text = input.getText();
+            if (runInBackground("append", text, BLOCKING, job -> appendText(text), outputArea::setText, "追加失败")
+                    != BackgroundJobs.Submission.REJECTED) {
+                input.clear();
+            }
+        });
+        Button pollBtn = new Button("读取文件新增内容");
+        pollBtn.setOnAction(e -> pollAndShow(true));
+        CheckBox follow = new CheckBox("自动跟踪文件");
+        Timeline tail = new Timeline(new KeyFrame(Duration.seconds(1), e -> pollAndShow(false)));
+        tail.setCycleCount(Animation.INDEFINITE);
+        follow.selectedProperty().addListener((obs, was, on) -> {
+            if (on) {
+                tail.play();
+            } else {
+                tail.stop();
+            }
+        });
+        return new VBox(10, input, new HBox(10, appendBtn, pollBtn, follow));
+    }
+
+    /** 读取源文件新增内容；自动跟踪时没有变化就不刷新输出，上一次读取还没完成时跳过这一次。 */
+    private void pollAndShow(boolean always) {
+        if (!always && jobs.isRunning("append")) {
+            return;
         }
+        runInBackground("append", "poll", BLOCKING, job -> {
+            long before = store.version();
+            String summary = pollFile();
+            return always || store.version() != before ? summary : null;
+        }, summary -> {
+            if (summary != null) {
+                outputArea.setText(summary);
+            }
+        }, "读取失败");
+    }
+
+    /** 展开面板或点击刷新时显示各项操作的耗时分布；用 -XX:StartFlightRecording 启动时每次操作另有 JFR 事件。 */
+    private TitledPane createMetricsUI() {
+        TextArea table = new TextArea();
+        table.setEditable(false);
+        table.setPrefRowCount(10);
+        table.setFont(Font.font("Consolas", 13));
+        Button refresh = new Button("刷新");
+        refresh.setOnAction(e -> table.setText(metrics.report()));
+        VBox box = new VBox(10, table, refresh);
+        box.setPadding(new Insets(10));
+        TitledPane pane = new TitledPane("8. 运行统计", box);
+        pane.expandedProperty().addListener((obs, was, expanded) -> {
+            if (expanded) {
+                table.setText(metrics.report());
+            }
+        });
+        return pane;
+    }
+
+    private HBox createRandomWalkUI() {
+        TextField countInput = new TextField("100000");
+        countInput.setPrefWidth(100);
+        CheckBox weighted = new CheckBox("按出现次数加权");
+        Button batchBtn = new Button("批量游走");
+        batchBtn.setOnAction(e -> {
+            try {
+                int count = Integer.parseInt(countInput.getText().trim());
+                if (count < 1) {
+                    throw new NumberFormatException();
+                }
+                boolean byCount = weighted.isSelected();
+                runInBackground("walk", "walks", List.of(count, byCount), COMPUTE, job -> {
+                    long start = System.nanoTime();
+                    List<String> walks = randomWalks(count, byCount, job);
+                    double seconds = (System.nanoTime() - start) / 1e9;
+                    job.publish(String.format("已生成 %d 条游走（%.0f 条/秒），正在写入 random_walks.txt……",
+                            walks.size(), walks.size() / seconds));
+                    Files.write(Path.of("random_walks.txt"), walks);
+                    return String.format("已生成 %d 条游走（%.0f 条/秒），写入 random_walks.txt%n前 10 条：%n%s",
+                            walks.size(), walks.size() / seconds,
+                            String.join("\n", walks.subList(0, Math.min(10, walks.size()))));
+                }, outputArea::setText, "批量游走失败");
+            } catch (NumberFormatException ex) {
+                outputArea.setText("游走条数必须是正整数！");
+            }
+        });
+        return new HBox(10, createButton("随机游走", this::handleRandomWalk), new Label("条数:"), countInput,
+                weighted, batchBtn);
     }
 
     private void handleRandomWalk() {
-        String result = "随机游走路径：\n" + randomWalk();
-        outputArea.setText(result);
+        runInBackground("walk", "single", BLOCKING, job -> {
+            String result = "随机游走路径：\n" + randomWalk();
+            job.publish(result);
 
-        String timestamp = java.time.LocalDateTime.now()
-                .format(java.time.format.DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
-        String filename = "random_walk_" + timestamp + ".txt";
+            String timestamp = java.time.LocalDateTime.now()
+                    .format(java.time.format.DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
+            String filename = "random_walk_" + timestamp + ".txt";
 
-        try {
-            Files.writeString(Path.of(filename), result);
-        } catch (IOException e) {
-            outputArea.appendText("\n写入 " + filename + " 失败：" + e.getMessage());
-        }
+            try {
+                Files.writeString(Path.of(filename), result);
+            } catch (IOException e) {
+                return result + "\n写入 " + filename + " 失败：" + e.getMessage();
+            }
+            return result;
+        }, outputArea::setText, "随机游走失败");
     }
 
     private static void parseTextToGraph(String filePath) throws IOException {
-        String content = Files.readString(Path.of(filePath)).replaceAll("[^a-zA-Z\\s]", " ").toLowerCase();
-        String[] words = content.trim().split("\\s+");
-        for (int i = 0; i < words.length - 1; i++) {
-            graph.putIfAbsent(words[i], new HashMap<>());
-            graph.get(words[i]).merge(words[i + 1], 1, Integer::sum);
-        }
-        if (words.length > 0) {
-            graph.putIfAbsent(words[words.length - 1], new HashMap<>());
-        }
+        metrics.time("parse", filePath, () -> {
+            live = LiveGraph.open(Path.of(filePath), live == null ? WordGraph.EMPTY : live.graph());
+            store.publish(live.graph());
+            metrics.graph(live.graph());
+            pathCache.invalidate();
+            return null;
+        });
     }
 
-    private static boolean inGraph(String word) {
-        if (graph.containsKey(word)) {
-            return true;
+    private static String appendText(String text) {
+        if (live == null) {
+            return "尚未加载文件！";
         }
-        return graph.values().stream().anyMatch(m -> m.containsKey(word));
+        return apply(live.append(text));
     }
 
-    private static String queryBridgeWords(String word1, String word2) {
-        if (!inGraph(word1) && !inGraph(word2)) {
-            return "No \"" + word1 + "\" and \"" + word2 + "\" in the graph!";
-        }
-        if (!inGraph(word1)) {
-            return "No \"" + word1 + "\" in the graph!";
-        }
-        if (!inGraph(word2)) {
-            return "No \"" + word2 + "\" in the graph!";
-        }
-        if (!graph.containsKey(word1)) {
-            return "No bridge words from \"" + word1 + "\" to \"" + word2 + "\"!";
+    private static String pollFile() throws IOException {
+        if (live == null) {
+            return "尚未加载文件！";
         }
+        return apply(live.poll());
+    }
 
-        Set<String> bridges = new HashSet<>();
-        for (String mid : graph.get(word1).keySet()) {
-            if (graph.containsKey(mid) && graph.get(mid).containsKey(word2)) {
-                bridges.add(mid);
-            }
+    /**
+     * 发布追加后的图，正在后台运行的查询继续使用它们固定的旧版本；
+     * 最短路缓存只丢弃受变化的边影响的树，PageRank 下次计算时从旧结果热启动。
+     */
+    private static String apply(LiveGraph.Delta delta) {
+        WordGraph graph = delta.after();
+        store.publish(graph);
+        metrics.graph(graph);
+        pathCache.update(delta);
+        if (delta.changed() == null) {
+            return "源文件被截断，已重新解析：" + graph.size() + " 个词，" + graph.edgeCount() + " 条边";
         }
+        return String.format("新增 %d 个词、%d 条边，%d 条边权重增加（最短路缓存保留 %d 棵树）",
+                delta.addedWords(), delta.addedEdges(), delta.changed().length - delta.addedEdges(), pathCache.size());
+    }
 
-        if (bridges.isEmpty()) {
-            return "No bridge words from \"" + word1 + "\" to \"" + word2 + "\"!";
-        }
-        List<String> list = new ArrayList<>(bridges);
-        String res = switch (list.size()) {
-            case 1 -> list.getFirst();
-            case 2 -> list.get(0) + " and " + list.get(1);
-            default -> String.join(", ", list.subList(0, list.size() - 1)) + ", and " + list.getLast();
-        };
-        return "The bridge words from \"" + word1 + "\" to \"" + word2 + "\" are: " + res + ".";
+    private static String queryBridgeWords(String word1, String word2) {
+        return store.read(graph -> GraphQueries.bridgeWords(graph, word1, word2));
     }
 
     private static String generateNewText(String text) {
-        String[] words = text.toLowerCase().replaceAll("[^a-zA-Z\\s]", " ").split("\\s+");
-        if (words.length == 0) {
-            return "";
-        }
-        StringBuilder sb = new StringBuilder(words[0]);
-        for (int i = 0; i < words.length - 1; i++) {
-            String w1 = words[i], w2 = words[i + 1];
-            List<String> bridges = new ArrayList<>();
-            if (graph.containsKey(w1)) {
-                for (String mid : graph.get(w1).keySet()) {
-                    if (graph.containsKey(mid) && graph.get(mid).containsKey(w2)) {
-                        bridges.add(mid);
-                    }
-                }
-            }
-            if (!bridges.isEmpty()) {
-                sb.append(" ").append(bridges.get(random.nextInt(bridges.size())));
-            }
-            sb.append(" ").append(w2);
-        }
-        return sb.toString();
+        return store.read(graph -> GraphQueries.generateNewText(graph, text, random));
     }
 
     private static String calcShortestPath(String word1, String word2) {
-        if (!graph.containsKey(word1)) {
+        return calcShortestPath(word1, word2, Progress.NONE);
+    }
+
+    private static String calcShortestPath(String word1, String word2, Progress progress) {
+        return store.read(graph -> calcShortestPath(graph, word1, word2, progress));
+    }
+
+    private static String calcShortestPath(WordGraph graph, String word1, String word2, Progress progress) {
+        if (!graph.contains(word1)) {
             return "No \"" + word1 + "\" in the graph!";
         }
-        Map<String, Integer> dist = new HashMap<>();
-        Map<String, String> prev = new HashMap<>();
-        for (String node : graph.keySet()) {
-            dist.put(node, Integer.MAX_VALUE);
-        }
-        dist.put(word1, 0);
-
-        PriorityQueue<String> pq = new PriorityQueue<>(Comparator.comparingInt(dist::get));
-        pq.add(word1);
-
-        while (!pq.isEmpty()) {
-            String u = pq.poll();
-            for (var e : graph.get(u).entrySet()) {
-                String v = e.getKey();
-                int weight = e.getValue();
-                if (dist.get(u) + weight < dist.getOrDefault(v, Integer.MAX_VALUE)) {
-                    dist.put(v, dist.get(u) + weight);
-                    prev.put(v, u);
-                    pq.add(v);
-                }
-            }
-        }
-
+        int source = graph.id(word1);
         if (word2 == null || word2.isEmpty()) {
             // Display the shortest paths from word1 to all others
+            ShortestPaths.Tree tree = pathCache.fullTree(graph, source);
             StringBuilder sb = new StringBuilder();
-            for (String target : graph.keySet()) {
-                if (target.equals(word1)) {
+            for (int target = 0; target < graph.size(); target++) {
+                progress.report(target, graph.size());
+                if (target == source) {
                     continue;
                 }
-                if (dist.get(target) == Integer.MAX_VALUE) {
-                    sb.append("No path from \"").append(word1).append("\" to \"").append(target).append("\"\n");
+                if (!tree.reaches(target)) {
+                    sb.append("No path from \"").append(word1).append("\" to \"")
+                            .append(graph.word(target)).append("\"\n");
                 } else {
-                    LinkedList<String> path = new LinkedList<>();
-                    for (String at = target; at != null; at = prev.get(at)) {
-                        path.addFirst(at);
-                    }
-                    sb.append("Shortest path to ").append(target).append(": ")
-                            .append(String.join(" -> ", path))
-                            .append(" (Length: ").append(dist.get(target)).append(")\n");
+                    sb.append("Shortest path to ").append(graph.word(target)).append(": ")
+                            .append(String.join(" -> ", tree.path(graph, target)))
+                            .append(" (Length: ").append(tree.dist()[target]).append(")\n");
                 }
             }
             return sb.toString();
         } else {
-            if (!graph.containsKey(word2)) {
+            if (!graph.contains(word2)) {
                 return "No \"" + word2 + "\" in the graph!";
             }
-            if (dist.get(word2) == Integer.MAX_VALUE) {
-                return "No path from \"" + word1 + "\" to \"" + word2 + "\"";
+            int target = graph.id(word2);
+            ShortestPaths.Tree tree = pathCache.get(graph, source);
+            if (tree == null) {
+                tree = ShortestPaths.bidirectional(graph, source, target);
             }
-            LinkedList<String> path = new LinkedList<>();
-            for (String at = word2; at != null; at = prev.get(at)) {
-                path.addFirst(at);
+            if (!tree.reaches(target)) {
+                return "No path from \"" + word1 + "\" to \"" + word2 + "\"";
             }
-            return "Shortest path: " + String.join(" -> ", path) + "\nLength: " + dist.get(word2);
+            return "Shortest path: " + String.join(" -> ", tree.path(graph, target)) + "\nLength: " + tree.dist()[target];
         }
     }
 
-    private static Map<String, Double> calPageRank(double d) {
-        int maxIter = 100;
-        double tol = 1e-6;
-        Set<String> nodes = graph.keySet();
-        Map<String, Double> pr = new HashMap<>();
-        for (String n : nodes) {
-            pr.put(n, 1.0 / nodes.size());
-        }
-        for (int i = 0; i < maxIter; i++) {
-            Map<String, Double> next = new HashMap<>();
-            for (String n : nodes) {
-                next.put(n, (1 - d) / nodes.size());
-            }
-            double sink = 0;
-
-            for (Map.Entry<String, Map<String, Integer>> entry : graph.entrySet()) {
-                String u = entry.getKey();
-                Map<String, Integer> out = entry.getValue();
-                if (out.isEmpty()) {
-                    sink += pr.get(u);
-                    continue;
-                }
-                double share = pr.get(u) / out.size();
-                for (String v : out.keySet()) {
-                    next.put(v, next.get(v) + d * share);
-                }
-            }
+    /** 路径逐条生成，每找到一条就把目前的结果发布出去。 */
+    private static String calcKShortestPaths(String word1, String word2, int k, BackgroundJobs.Job job) {
+        return store.read(g -> calcKShortestPaths(g, word1, word2, k, job));
+    }
 
-            double sinkShare = d * sink / nodes.size();
-            for (String n : nodes) {
-                next.put(n, next.get(n) + sinkShare);
-            }
-            double delta = 0;
-            for (String n : nodes) {
-                delta += Math.abs(next.get(n) - pr.get(n));
-            }
-            pr = next;
-            if (delta < tol) {
-                break;
-            }
+    private static String calcKShortestPaths(WordGraph g, String word1, String word2, int k, BackgroundJobs.Job job) {
+        if (!g.contains(word1)) {
+            return "No \"" + word1 + "\" in the graph!";
         }
-        return pr;
+        if (!g.contains(word2)) {
+            return "No \"" + word2 + "\" in the graph!";
+        }
+        KShortestPaths search = new KShortestPaths(g, g.id(word1), g.id(word2));
+        StringBuilder body = new StringBuilder();
+        int found = 0;
+        KShortestPaths.WeightedPath path;
+        while (found < k && (path = search.next()) != null) {
+            found++;
+            body.append(found).append(". ").append(String.join(" -> ", path.words(g)))
+                    .append(" (Length: ").append(path.length()).append(")\n");
+            job.report(found, k);
+            job.publish(body + "（继续查找中……）");
+        }
+        if (found == 0) {
+            return "No path from \"" + word1 + "\" to \"" + word2 + "\"";
+        }
+        return "Top " + found + " paths from \"" + word1 + "\" to \"" + word2 + "\":\n" + body;
     }
 
     private static String randomWalk() {
-        StringBuilder sb = new StringBuilder();
-        Set<String> visitedEdges = new HashSet<>();
-        List<String> keys = new ArrayList<>(graph.keySet());
-        if (keys.isEmpty()) {
-            return "";
-        }
-        String current = keys.get(random.nextInt(keys.size()));
-        sb.append(current);
-        while (graph.containsKey(current) && !graph.get(current).isEmpty()) {
-            List<String> nextNodes = new ArrayList<>(graph.get(current).keySet());
-            String next = nextNodes.get(random.nextInt(nextNodes.size()));
-            String edge = current + "->" + next;
-            if (visitedEdges.contains(edge)) {
-                break;
+        return store.read(graph -> GraphQueries.randomWalk(graph, random));
+    }
+
+    private static List<String> randomWalks(int count, boolean weighted, Progress progress) {
+        return store.read(g -> {
+            int[][] walks = RandomWalks.generate(g, count, weighted, random.nextLong(), progress);
+            List<String> result = new ArrayList<>(walks.length);
+            for (int[] walk : walks) {
+                result.add(String.join(" ", GraphQueries.words(g, walk)));
             }
-            visitedEdges.add(edge);
-            sb.append(" ").append(next);
-            current = next;
-        }
-        return sb.toString();
+            return result;
+        });
     }
 }
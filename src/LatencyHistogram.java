@@ -0,0 +1,83 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * HdrHistogram 式的延迟直方图（单位纳秒），可以在多个线程上并发记录，不加锁。
+ * 小于 2^SUB_BUCKET_BITS 的值各占一个桶；更大的值按最高位所在的 2 的幂区间分组，每组再等分为
+ * 2^(SUB_BUCKET_BITS-1) 个桶，相对误差不超过 1 / 2^(SUB_BUCKET_BITS-1)（约 1.6%）。
+ * 超过 MAX_TRACKABLE 的值计入最后一个桶，但 max() 仍然精确。
+ */
+final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int HALF = 1 << (SUB_BUCKET_BITS - 1);
+    /** 约 18 分钟。 */
+    static final long MAX_TRACKABLE = (1L << 40) - 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(index(MAX_TRACKABLE) + 1);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong max = new AtomicLong();
+
+    void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(index(Math.min(value, MAX_TRACKABLE)));
+        total.addAndGet(value);
+        min.accumulateAndGet(value, Math::min);
+        max.accumulateAndGet(value, Math::max);
+        count.incrementAndGet();
+    }
+
+    long count() {
+        return count.get();
+    }
+
+    long min() {
+        return count() == 0 ? 0 : min.get();
+    }
+
+    long max() {
+        return max.get();
+    }
+
+    double mean() {
+        long n = count();
+        return n == 0 ? 0 : (double) total.get() / n;
+    }
+
+    /** 第 percentile 百分位（0..100）：至少有这么多比例的记录不超过返回值；返回所在桶的上界，不超过 max。 */
+    long percentile(double percentile) {
+        long n = count();
+        if (n == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * n));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                // 最后一个桶收容了所有超出范围的值，只有 max 是准确的
+                return i == counts.length() - 1 ? max() : Math.min(highestEquivalent(i), max());
+            }
+        }
+        return max();
+    }
+
+    static int index(long value) {
+        if (value < 2 * HALF) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1);
+        return shift * HALF + (int) (value >>> shift);
+    }
+
+    /** 与下标为 index 的桶中最大的值。 */
+    static long highestEquivalent(int index) {
+        if (index < 2 * HALF) {
+            return index;
+        }
+        int shift = index / HALF - 1;
+        long mantissa = index - (long) shift * HALF;
+        return ((mantissa + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,60 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testBucketsAreContiguousAndWithinRelativeError() {
+        int previous = -1;
+        for (long v = 0; v < 1 << 20; v += 1 + v / 100) {
+            int index = LatencyHistogram.index(v);
+            assertTrue(index >= previous, "v = " + v);
+            previous = index;
+            long high = LatencyHistogram.highestEquivalent(index);
+            assertTrue(high >= v, "v = " + v);
+            assertTrue(high - v <= Math.max(0, v / 64), "v = " + v);
+            assertEquals(index, LatencyHistogram.index(high));
+            assertEquals(index + 1, LatencyHistogram.index(high + 1));
+        }
+    }
+
+    @Test
+    public void testPercentilesMatchSortedSamples() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        SplittableRandom random = new SplittableRandom(3);
+        List<Long> samples = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            // 对数均匀分布在 1 µs 到 1 s 之间
+            long nanos = (long) Math.pow(10, 3 + 6 * random.nextDouble());
+            samples.add(nanos);
+            histogram.record(nanos);
+        }
+        samples.sort(null);
+        assertEquals(10_000, histogram.count());
+        assertEquals(samples.getFirst(), histogram.min());
+        assertEquals(samples.getLast(), histogram.max());
+        assertEquals(samples.stream().mapToLong(Long::longValue).average().orElseThrow(), histogram.mean(), 1e-6);
+        for (double p : new double[]{50, 90, 99, 99.9}) {
+            long exact = samples.get((int) Math.ceil(p / 100 * samples.size()) - 1);
+            long estimate = histogram.percentile(p);
+            assertTrue(estimate >= exact && estimate <= exact + exact / 64, p + ": " + exact + " vs " + estimate);
+        }
+        assertEquals(histogram.max(), histogram.percentile(100));
+    }
+
+    @Test
+    public void testEmptyAndOutOfRangeValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.percentile(50));
+        assertEquals(0, histogram.min());
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE / 2);
+        assertEquals(0, histogram.min());
+        assertEquals(Long.MAX_VALUE / 2, histogram.max());
+        assertEquals(Long.MAX_VALUE / 2, histogram.percentile(100));
+    }
+}
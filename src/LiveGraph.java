@@ -0,0 +1,184 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * 可以追加文本的词图。每次追加只切分新文本：以当前图为基础创建 WordGraph.Builder，
+ * 新的二元组（包括上一段文本最后一个词到新文本第一个词的那条）写入构建器，
+ * build() 与原图归并，得到的新图与直接解析拼接后的全文完全相同（词 ID 不变，新词接在后面）。
+ * 切词、散列与排序只与新文本成正比；CSR 数组仍要整体复制一遍（未变化的行整段复制），即 O(V + E) 的顺序拷贝。
+ * 旧图保持不变，已经拿到旧图的读者不受影响；每次追加返回 Delta，供各种缓存按变化的边增量失效。
+ * poll() 读取源文件自上次以来新增的字节，末尾尚未结束的半个词暂存到下一次读取。
+ * append() 不动这半个词：追加的文本插在它之前，即插在文件中已读到的最后一个完整词之后，
+ * 之后 poll() 读完这个词时，它接在追加文本的最后一个词后面。
+ * 以已有的图为基础打开时，文件的词与边并入基础图（与原来多次读入文件时的累加一致），之后跟踪这个文件。
+ */
+final class LiveGraph {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * 一次追加前后的图，以及计数发生变化的边（按 (from << 32 | to) 打包，升序）：
+     * 原图中没有的是新边，其余是权重增加的旧边。changed 为 null 表示整图重新加载。
+     */
+    record Delta(WordGraph before, WordGraph after, long[] changed) {
+        int addedWords() {
+            return after.size() - before.size();
+        }
+
+        int addedEdges() {
+            return after.edgeCount() - before.edgeCount();
+        }
+    }
+
+    private final Path file;
+    private final WordGraph base;
+    private WordGraph graph;
+    private int last;
+    private byte[] pending = new byte[0];
+    private long offset;
+
+    private LiveGraph(Path file, WordGraph base, WordGraph graph, int last, long offset) {
+        this.file = file;
+        this.base = base;
+        this.graph = graph;
+        this.last = last;
+        this.offset = offset;
+    }
+
+    /** 解析整个文件（有匹配的快照时直接读取快照）；文件末尾视为单词结束。 */
+    static LiveGraph open(Path file) throws IOException {
+        return open(file, WordGraph.EMPTY);
+    }
+
+    /** 解析整个文件并把它的词与边累加到 base 上；两段之间不连边。 */
+    static LiveGraph open(Path file, WordGraph base) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size;
+            WordGraph graph;
+            // 解析期间文件又被追加时重新解析，保证 offset 与图中已包含的内容一致
+            do {
+                size = channel.size();
+                graph = load(file, base);
+            } while (channel.size() != size);
+            return new LiveGraph(file, base, graph, lastWord(channel, size, graph), size);
+        }
+    }
+
+    synchronized WordGraph graph() {
+        return graph;
+    }
+
+    /** 追加一段完整的文本（不写回源文件），文本末尾视为单词结束；poll() 暂存的半个词留到下一次 poll()。 */
+    synchronized Delta append(String text) {
+        WordGraph.Builder builder = new WordGraph.Builder(graph);
+        GraphLoader.BigramSink sink = new GraphLoader.BigramSink(builder, last);
+        sink.accept((byte) ' ');
+        for (byte b : text.getBytes(StandardCharsets.UTF_8)) {
+            sink.accept(b);
+        }
+        sink.finish();
+        return commit(builder, sink);
+    }
+
+    /** 读取源文件新增的内容；文件变短（被截断或替换）时重新解析整个文件。 */
+    synchronized Delta poll() throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < offset) {
+                WordGraph before = graph;
+                graph = load(file, base);
+                last = lastWord(channel, size, graph);
+                pending = new byte[0];
+                offset = size;
+                return new Delta(before, graph, null);
+            }
+            if (size == offset) {
+                return new Delta(graph, graph, new long[0]);
+            }
+            WordGraph.Builder builder = new WordGraph.Builder(graph);
+            GraphLoader.BigramSink sink = startSink(builder);
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            long position = offset;
+            while (position < size) {
+                buffer.limit((int) Math.min(BUFFER_SIZE, size - position));
+                int n = channel.read(buffer, position);
+                if (n < 0) {
+                    break;
+                }
+                position += n;
+                buffer.flip();
+                sink.accept(buffer);
+                buffer.clear();
+            }
+            offset = position;
+            pending = sink.takePending();
+            return commit(builder, sink);
+        }
+    }
+
+    private static WordGraph load(Path file, WordGraph base) throws IOException {
+        WordGraph parsed = GraphSnapshot.loadOrParse(file);
+        if (base.size() == 0) {
+            return parsed;
+        }
+        WordGraph.Builder builder = new WordGraph.Builder(base);
+        builder.addGraph(parsed);
+        return builder.build();
+    }
+
+    private GraphLoader.BigramSink startSink(WordGraph.Builder builder) {
+        GraphLoader.BigramSink sink = new GraphLoader.BigramSink(builder, last);
+        for (byte b : pending) {
+            sink.accept(b);
+        }
+        pending = new byte[0];
+        return sink;
+    }
+
+    private Delta commit(WordGraph.Builder builder, GraphLoader.BigramSink sink) {
+        WordGraph before = graph;
+        graph = builder.build();
+        last = sink.last();
+        return new Delta(before, graph, builder.edgeKeys());
+    }
+
+    /** 从文件末尾向前找到最后一个完整的词，返回其 ID；文件中没有词时返回 -1。 */
+    private static int lastWord(FileChannel channel, long size, WordGraph graph) throws IOException {
+        ByteBuffer block = ByteBuffer.allocate(4096);
+        byte[] word = new byte[32];
+        int length = 0;
+        long end = size;
+        while (end > 0) {
+            int n = (int) Math.min(block.capacity(), end);
+            block.clear().limit(n);
+            channel.read(block, end - n);
+            for (int i = n - 1; i >= 0; i--) {
+                byte b = block.get(i);
+                boolean letter = (b >= 'a' && b <= 'z') || (b >= 'A' && b <= 'Z');
+                if (!letter && length > 0) {
+                    return graph.id(reversedLowerCase(word, length));
+                }
+                if (letter) {
+                    if (length == word.length) {
+                        word = Arrays.copyOf(word, length * 2);
+                    }
+                    word[length++] = b;
+                }
+            }
+            end -= n;
+        }
+        return length > 0 ? graph.id(reversedLowerCase(word, length)) : -1;
+    }
+
+    private static String reversedLowerCase(byte[] word, int length) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) (word[length - 1 - i] | 0x20);
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,165 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.UUID;
+
+public class LiveGraphTest {
+
+    private Path writeTemp(String content) throws Exception {
+        Path tempFile = Files.createTempFile("graph_input_" + UUID.randomUUID(), ".txt");
+        Files.writeString(tempFile, content);
+        return tempFile;
+    }
+
+    private void assertSameGraph(WordGraph expected, WordGraph actual) {
+        assertEquals(expected.size(), actual.size());
+        assertEquals(expected.edgeCount(), actual.edgeCount());
+        for (int u = 0; u < expected.size(); u++) {
+            assertEquals(expected.word(u), actual.word(u));
+            assertEquals(expected.outStart(u), actual.outStart(u));
+            assertEquals(expected.inStart(u), actual.inStart(u));
+        }
+        for (int i = 0; i < expected.edgeCount(); i++) {
+            assertEquals(expected.target(i), actual.target(i));
+            assertEquals(expected.weight(i), actual.weight(i));
+            assertEquals(expected.source(i), actual.source(i));
+            assertEquals(expected.inWeight(i), actual.inWeight(i));
+        }
+    }
+
+    @Test
+    public void testAppendMatchesFullParse() throws Exception {
+        LiveGraph live = LiveGraph.open(writeTemp("To explore strange new worlds, to seek out new life"));
+        LiveGraph.Delta delta = live.append("and new civilizations. To boldly go");
+        WordGraph expected = GraphLoader.loadSequential(
+                writeTemp("To explore strange new worlds, to seek out new life and new civilizations. To boldly go"));
+        assertSameGraph(expected, delta.after());
+        assertSame(delta.after(), live.graph());
+        // life -> and 连接了两段文本
+        assertTrue(live.graph().hasEdge(live.graph().id("life"), live.graph().id("and")));
+        assertEquals(4, delta.addedWords());
+        // 原图不受影响
+        assertFalse(delta.before().contains("boldly"));
+    }
+
+    @Test
+    public void testPollKeepsPartialWordUntilSeparator() throws Exception {
+        Path file = writeTemp("the cat ");
+        LiveGraph live = LiveGraph.open(file);
+        Files.writeString(file, "sa", StandardOpenOption.APPEND);
+        assertFalse(live.poll().after().contains("sa"));
+        Files.writeString(file, "t on the mat", StandardOpenOption.APPEND);
+        live.poll();
+        assertFalse(live.graph().contains("mat"));
+        Files.writeString(file, "\n", StandardOpenOption.APPEND);
+        live.poll();
+        assertSameGraph(GraphLoader.loadSequential(writeTemp("the cat sat on the mat")), live.graph());
+
+        LiveGraph.Delta unchanged = live.poll();
+        assertSame(unchanged.before(), unchanged.after());
+
+        Files.writeString(file, "a b");
+        LiveGraph.Delta reloaded = live.poll();
+        assertNull(reloaded.changed());
+        assertSameGraph(GraphLoader.loadSequential(writeTemp("a b")), reloaded.after());
+    }
+
+    @Test
+    public void testManyAppendsMatchFullParse() throws Exception {
+        Random rnd = new Random(5);
+        StringBuilder all = new StringBuilder("start");
+        LiveGraph live = LiveGraph.open(writeTemp(all.toString()));
+        for (int round = 0; round < 60; round++) {
+            StringBuilder text = new StringBuilder();
+            for (int i = 0; i < 1 + rnd.nextInt(6); i++) {
+                // 字母表随轮次变大，不断出现新词
+                text.append((char) ('a' + rnd.nextInt(1 + round / 3))).append(' ');
+            }
+            live.append(text.toString());
+            all.append(' ').append(text);
+            assertSameGraph(GraphLoader.loadSequential(writeTemp(all.toString())), live.graph());
+        }
+    }
+
+    @Test
+    public void testAppendGoesBeforeHeldBackWord() throws Exception {
+        Path file = writeTemp("the cat sa");
+        LiveGraph live = LiveGraph.open(file);
+        // 打开时文件末尾视为单词结束，这里从没有半个词的状态开始
+        Files.writeString(file, " on th", StandardOpenOption.APPEND);
+        live.poll();
+        live.append("a dog");
+        Files.writeString(file, "e mat ", StandardOpenOption.APPEND);
+        live.poll();
+        // 追加的文本插在已读到的最后一个完整词之后
+        assertSameGraph(GraphLoader.loadSequential(writeTemp("the cat sa on a dog the mat")), live.graph());
+    }
+
+    @Test
+    public void testBranchesFromOneBaseKeepSeparateWords() throws Exception {
+        WordGraph base = GraphLoader.loadSequential(writeTemp("a b c"));
+        WordGraph.Builder first = new WordGraph.Builder(base);
+        first.addEdge(first.intern("c"), first.intern("x"));
+        WordGraph withX = first.build();
+        WordGraph.Builder second = new WordGraph.Builder(base);
+        second.addEdge(second.intern("c"), second.intern("y"));
+        WordGraph withY = second.build();
+        WordGraph.Builder third = new WordGraph.Builder(withX);
+        third.addEdge(third.intern("x"), third.intern("z"));
+        WordGraph withZ = third.build();
+
+        assertEquals(3, withX.id("x"));
+        assertEquals(3, withY.id("y"));
+        assertEquals(-1, withY.id("x"));
+        assertEquals(-1, withX.id("y"));
+        assertEquals(-1, withX.id("z"));
+        assertEquals(-1, base.id("x"));
+        assertEquals(4, withZ.id("z"));
+        assertEquals(3, withZ.id("x"));
+        assertSameGraph(GraphLoader.loadSequential(writeTemp("a b c y")), withY);
+        assertSameGraph(GraphLoader.loadSequential(writeTemp("a b c x z")), withZ);
+    }
+
+    @Test
+    public void testOpenOnBaseAccumulatesCounts() throws Exception {
+        WordGraph base = LiveGraph.open(writeTemp("a a a b")).graph();
+        LiveGraph live = LiveGraph.open(writeTemp("a b b c"), base);
+        WordGraph g = live.graph();
+        // 两个文件的边计数相加，b -> a 之间不连边；跟踪的是第二个文件
+        assertEquals(3, g.size());
+        assertEquals(2, g.weight(g.edgeIndex(g.id("a"), g.id("b"))));
+        assertEquals(2, g.weight(g.edgeIndex(g.id("a"), g.id("a"))));
+        assertFalse(g.hasEdge(g.id("b"), g.id("a")));
+        assertTrue(live.append("a").after().hasEdge(g.id("c"), g.id("a")));
+    }
+
+    @Test
+    public void testTreeCacheKeepsOnlyUnaffectedTrees() throws Exception {
+        // 边：b->c, c->a, a->b, b->a, a->c；追加 "a b" 只增加 c->a 与 a->b 的权重
+        LiveGraph live = LiveGraph.open(writeTemp("b c a b a c"));
+        WordGraph before = live.graph();
+        ShortestPaths.TreeCache cache = new ShortestPaths.TreeCache(1 << 20);
+        for (int s = 0; s < before.size(); s++) {
+            cache.fullTree(before, s);
+        }
+        LiveGraph.Delta delta = live.append("a b");
+        assertEquals(0, delta.addedEdges());
+        cache.update(delta);
+        // 只有 b 的树不经过这两条边（c->a 与 a->b 都不是它的树边）
+        assertEquals(1, cache.size());
+        WordGraph after = delta.after();
+        ShortestPaths.Tree kept = cache.get(after, after.id("b"));
+        assertNotNull(kept);
+        assertArrayEquals(ShortestPaths.fromSource(after, after.id("b")).dist(), kept.dist());
+        assertArrayEquals(ShortestPaths.fromSource(after, after.id("b")).prev(), kept.prev());
+
+        // 出现新词时所有树都要丢弃
+        cache.fullTree(after, after.id("a"));
+        cache.update(live.append("zz"));
+        assertEquals(0, cache.size());
+    }
+}
@@ -0,0 +1,115 @@
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 各项操作的运行统计：每个操作名一个延迟直方图（只记录成功的调用）和失败次数，
+ * 每次调用同时提交一个 OperationEvent，JFR 录制中可以看到每次查询的参数和耗时。
+ * 同时记住最近发布的图，用于报告图的规模与估计内存，也填入事件的词数与边数。
+ */
+final class Metrics {
+    /** JFR 事件中参数的最大长度，避免整段文本进入录制。 */
+    private static final int MAX_ARGUMENTS = 200;
+
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> failures = new ConcurrentHashMap<>();
+    private volatile WordGraph graph = WordGraph.EMPTY;
+
+    @FunctionalInterface
+    interface Body<T, E extends Exception> {
+        T run() throws E;
+    }
+
+    /** 计时执行 body；抛出异常（包括取消）时计为一次失败并原样抛出。 */
+    <T, E extends Exception> T time(String operation, String arguments, Body<T, E> body) throws E {
+        OperationEvent event = new OperationEvent();
+        event.begin();
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            T result = body.run();
+            failed = false;
+            return result;
+        } finally {
+            long nanos = System.nanoTime() - start;
+            event.end();
+            if (failed) {
+                failures.computeIfAbsent(operation, k -> new AtomicLong()).incrementAndGet();
+            } else {
+                histograms.computeIfAbsent(operation, k -> new LatencyHistogram()).record(nanos);
+            }
+            if (event.shouldCommit()) {
+                WordGraph current = graph;
+                event.operation = operation;
+                event.arguments = arguments.length() > MAX_ARGUMENTS
+                        ? arguments.substring(0, MAX_ARGUMENTS) + "…" : arguments;
+                event.words = current.size();
+                event.edges = current.edgeCount();
+                event.failed = failed;
+                event.commit();
+            }
+        }
+    }
+
+    /** 记录新发布的图。 */
+    void graph(WordGraph graph) {
+        this.graph = graph;
+    }
+
+    LatencyHistogram histogram(String operation) {
+        return histograms.get(operation);
+    }
+
+    long failures(String operation) {
+        AtomicLong n = failures.get(operation);
+        return n == null ? 0 : n.get();
+    }
+
+    /** 图规模加上每个操作一行：次数、失败次数、平均、p50 / p90 / p99 与最大耗时。 */
+    String report() {
+        WordGraph current = graph;
+        StringBuilder sb = new StringBuilder(String.format(Locale.ROOT, "图：%d 个词，%d 条边，估计占用 %.1f MB%n",
+                current.size(), current.edgeCount(), current.estimatedBytes() / (1024.0 * 1024.0)));
+        Set<String> operations = new TreeSet<>(histograms.keySet());
+        operations.addAll(failures.keySet());
+        if (operations.isEmpty()) {
+            return sb.append("还没有执行任何操作。\n").toString();
+        }
+        sb.append(pad("操作", -10)).append(pad("次数", 9)).append(pad("失败", 7));
+        for (String column : new String[]{"平均", "p50", "p90", "p99", "最大"}) {
+            sb.append(pad(column, 11));
+        }
+        sb.append(System.lineSeparator());
+        for (String op : operations) {
+            LatencyHistogram h = histograms.getOrDefault(op, new LatencyHistogram());
+            sb.append(String.format("%-10s %8d %6d %10s %10s %10s %10s %10s%n", op, h.count(), failures(op),
+                    duration(h.mean()), duration(h.percentile(50)), duration(h.percentile(90)),
+                    duration(h.percentile(99)), duration(h.max())));
+        }
+        return sb.toString();
+    }
+
+    /** 按终端显示宽度（汉字占两列）补齐空格，width 为负时左对齐。 */
+    private static String pad(String text, int width) {
+        int columns = text.codePoints().map(c -> c >= 0x2E80 ? 2 : 1).sum();
+        String spaces = " ".repeat(Math.max(0, Math.abs(width) - columns));
+        return width < 0 ? text + spaces : spaces + text;
+    }
+
+    /** 按量级选择单位：812 ns、3.40 µs、12.5 ms、2.31 s。 */
+    static String duration(double nanos) {
+        if (nanos < 1e3) {
+            return String.format(Locale.ROOT, "%.0f ns", nanos);
+        }
+        if (nanos < 1e6) {
+            return String.format(Locale.ROOT, "%.2f µs", nanos / 1e3);
+        }
+        if (nanos < 1e9) {
+            return String.format(Locale.ROOT, "%.1f ms", nanos / 1e6);
+        }
+        return String.format(Locale.ROOT, "%.2f s", nanos / 1e9);
+    }
+}
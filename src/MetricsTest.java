@@ -0,0 +1,81 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+public class MetricsTest {
+
+    private WordGraph graph(String content) throws Exception {
+        Path tempFile = Files.createTempFile("graph_input_" + UUID.randomUUID(), ".txt");
+        Files.writeString(tempFile, content);
+        return GraphLoader.load(tempFile);
+    }
+
+    @Test
+    public void testSuccessesAreTimedAndFailuresCounted() throws Exception {
+        Metrics metrics = new Metrics();
+        WordGraph g = graph("the cat sat on the mat");
+        metrics.graph(g);
+        for (int i = 0; i < 3; i++) {
+            assertEquals("x", metrics.time("bridge", "the sat", () -> "x"));
+        }
+        assertThrows(IOException.class, () -> metrics.time("parse", "missing.txt", () -> {
+            throw new IOException("missing");
+        }));
+
+        assertEquals(3, metrics.histogram("bridge").count());
+        assertEquals(0, metrics.failures("bridge"));
+        assertNull(metrics.histogram("parse"));
+        assertEquals(1, metrics.failures("parse"));
+
+        String report = metrics.report();
+        assertTrue(report.startsWith("图：5 个词，5 条边，估计占用 "), report);
+        assertTrue(report.lines().anyMatch(line -> line.startsWith("bridge ") && line.contains(" 3 ")), report);
+        assertTrue(report.lines().anyMatch(line -> line.startsWith("parse ") && line.contains(" 1 ")), report);
+        assertTrue(g.estimatedBytes() > 0);
+        assertTrue(graph("a b c d e f g h").estimatedBytes() > g.estimatedBytes());
+    }
+
+    @Test
+    public void testEachOperationIsRecordedAsJfrEvent() throws Exception {
+        Metrics metrics = new Metrics();
+        metrics.graph(graph("a b c"));
+        Path file = Files.createTempFile("metrics_" + UUID.randomUUID(), ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("textflow.GraphOperation").withoutThreshold();
+            recording.start();
+            metrics.time("path", "a c", () -> "done");
+            assertThrows(IllegalStateException.class, () -> metrics.time("walk", "x".repeat(500), () -> {
+                throw new IllegalStateException();
+            }));
+            recording.stop();
+            recording.dump(file);
+        }
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                .filter(e -> e.getEventType().getName().equals("textflow.GraphOperation"))
+                .toList();
+        assertEquals(2, events.size());
+        assertEquals("path", events.get(0).getString("operation"));
+        assertEquals("a c", events.get(0).getString("arguments"));
+        assertEquals(3, events.get(0).getInt("words"));
+        assertEquals(2, events.get(0).getInt("edges"));
+        assertFalse(events.get(0).getBoolean("failed"));
+        assertTrue(events.get(1).getBoolean("failed"));
+        assertEquals(201, events.get(1).getString("arguments").length());
+    }
+
+    @Test
+    public void testDurationUnits() {
+        assertEquals("812 ns", Metrics.duration(812));
+        assertEquals("3.40 µs", Metrics.duration(3_400));
+        assertEquals("12.5 ms", Metrics.duration(12_500_000));
+        assertEquals("2.31 s", Metrics.duration(2_310_000_000.0));
+    }
+}
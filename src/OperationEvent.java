@@ -0,0 +1,33 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 每次解析、图查询和 DOT 渲染各提交一个 JFR 事件，事件自带开始时间与持续时间。
+ * 录制方式：java -XX:StartFlightRecording=filename=lab1.jfr Lab1，再用 jfr print --events textflow.GraphOperation lab1.jfr
+ * 或 JDK Mission Control 查看。未在录制时 begin / commit 几乎没有开销。
+ */
+@Name("textflow.GraphOperation")
+@Label("图操作")
+@Category("TextFlow")
+@Description("一次解析、查询或渲染，带参数与当时的图规模")
+@StackTrace(false)
+final class OperationEvent extends Event {
+    @Label("操作")
+    String operation;
+
+    @Label("参数")
+    String arguments;
+
+    @Label("词数")
+    int words;
+
+    @Label("边数")
+    int edges;
+
+    @Label("失败")
+    boolean failed;
+}
@@ -0,0 +1,239 @@
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 基于 double[] 的拉取式（pull）PageRank 幂迭代。
+ * 每轮先并行计算各节点的出边贡献 pr[u] / outDegree(u) 与悬挂节点总质量，
+ * 再按节点区间并行地沿入边 CSR 汇总得到新向量，收敛判断用的 L1 残差同样是并行归约。
+ * 区间切分只取决于节点数，与线程数无关，所以结果是确定的。
+ */
+final class PageRank {
+    private static final int SEQUENTIAL_THRESHOLD = 4096;
+    private static final AtomicBoolean INVALID_PROPERTY_REPORTED = new AtomicBoolean();
+
+    private PageRank() {
+    }
+
+    /** 悬挂节点（没有出边的词）的处理方式，两个前端共用同一策略。 */
+    enum DanglingPolicy {
+        /** 悬挂节点的分数按阻尼系数均匀分给所有节点，分数总和保持为 1。 */
+        REDISTRIBUTE,
+        /** 悬挂节点的分数直接丢弃。 */
+        IGNORE;
+
+        /** 读取系统属性 pagerank.dangling（redistribute / ignore），默认 REDISTRIBUTE；无效的值警告一次后按默认处理。 */
+        static DanglingPolicy fromSystemProperty() {
+            String value = System.getProperty("pagerank.dangling", "redistribute");
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                if (!INVALID_PROPERTY_REPORTED.getAndSet(true)) {
+                    System.err.println("pagerank.dangling=" + value + " 无效，可选 redistribute 或 ignore，按 redistribute 计算");
+                }
+                return REDISTRIBUTE;
+            }
+        }
+    }
+
+    record Options(double damping, int maxIterations, double tolerance, DanglingPolicy dangling) {
+        static Options of(double damping) {
+            return new Options(damping, 100, 1e-6, DanglingPolicy.fromSystemProperty());
+        }
+    }
+
+    /**
+     * 计算结果：各节点分数（下标为词 ID）、实际迭代次数、最后一轮的 L1 残差，
+     * 以及热启动相对最近一次冷启动节省的迭代次数（冷启动时为 0）。
+     */
+    record Result(double[] scores, int iterations, double residual, int iterationsSaved) {
+        Map<String, Double> toMap(WordGraph graph) {
+            Map<String, Double> map = new HashMap<>();
+            for (int v = 0; v < scores.length; v++) {
+                map.put(graph.word(v), scores[v]);
+            }
+            return map;
+        }
+
+        /** 分数最高的 k 个词 ID，按分数降序（同分按 ID），O(V log k)。 */
+        int[] top(int k) {
+            return TopK.of(scores, k);
+        }
+    }
+
+    static Result compute(WordGraph graph, Options options) {
+        return compute(graph, options, Progress.NONE);
+    }
+
+    /** 每轮迭代结束后以 (迭代次数, 最大迭代次数) 报告一次进度。 */
+    static Result compute(WordGraph graph, Options options, Progress progress) {
+        int n = graph.size();
+        double[] pr = new double[n];
+        Arrays.fill(pr, 1.0 / n);
+        return iterate(graph, options, pr, progress);
+    }
+
+    private static Result iterate(WordGraph graph, Options options, double[] pr, Progress progress) {
+        int n = graph.size();
+        if (n == 0) {
+            return new Result(pr, 0, 0, 0);
+        }
+        double d = options.damping();
+        double[] next = new double[n];
+        double[] contrib = new double[n];
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        int iterations = 0;
+        double residual = Double.NaN;
+
+        while (iterations < options.maxIterations()) {
+            double[] current = pr;
+            double sink = pool.invoke(new RangeSum(0, n, (lo, hi) -> {
+                double s = 0;
+                for (int u = lo; u < hi; u++) {
+                    int out = graph.outDegree(u);
+                    if (out == 0) {
+                        contrib[u] = 0;
+                        s += current[u];
+                    } else {
+                        contrib[u] = current[u] / out;
+                    }
+                }
+                return s;
+            }));
+
+            double base = (1 - d) / n
+                    + (options.dangling() == DanglingPolicy.REDISTRIBUTE ? d * sink / n : 0);
+            double[] target = next;
+            residual = pool.invoke(new RangeSum(0, n, (lo, hi) -> {
+                double delta = 0;
+                for (int v = lo; v < hi; v++) {
+                    double in = 0;
+                    for (int i = graph.inStart(v); i < graph.inEnd(v); i++) {
+                        in += contrib[graph.source(i)];
+                    }
+                    target[v] = base + d * in;
+                    delta += Math.abs(target[v] - current[v]);
+                }
+                return delta;
+            }));
+
+            next = pr;
+            pr = target;
+            iterations++;
+            if (residual < options.tolerance()) {
+                break;
+            }
+            progress.report(iterations, options.maxIterations());
+        }
+        return new Result(pr, iterations, residual, 0);
+    }
+
+    /**
+     * 热启动缓存：为每个图版本保留最近一次收敛的向量（弱引用，图被回收后自动释放）。
+     * 同一个图换阻尼系数重算时直接从上次的向量出发；图更新（重新加载或追加文本）后，
+     * 按单词把最近一个版本的分数映射到新图上，新出现的词取传送概率 (1 - d) / n，再归一化。
+     * 节省的迭代次数以最近一次冷启动的迭代次数为基准。
+     */
+    static final class WarmStart {
+        private final Map<WordGraph, double[]> converged = new WeakHashMap<>();
+        private WordGraph latest;
+        private int coldIterations;
+
+        Result compute(WordGraph graph, Options options) {
+            return compute(graph, options, Progress.NONE);
+        }
+
+        Result compute(WordGraph graph, Options options, Progress progress) {
+            double[] start = startVector(graph, options);
+            if (start == null) {
+                Result cold = PageRank.compute(graph, options, progress);
+                remember(graph, cold, true);
+                return cold;
+            }
+            Result warm = iterate(graph, options, start, progress);
+            remember(graph, warm, false);
+            return new Result(warm.scores(), warm.iterations(), warm.residual(),
+                    Math.max(0, coldIterations() - warm.iterations()));
+        }
+
+        synchronized void invalidate() {
+            converged.clear();
+            latest = null;
+        }
+
+        private synchronized int coldIterations() {
+            return coldIterations;
+        }
+
+        private synchronized void remember(WordGraph graph, Result result, boolean cold) {
+            converged.put(graph, result.scores().clone());
+            latest = graph;
+            if (cold) {
+                coldIterations = result.iterations();
+            }
+        }
+
+        private synchronized double[] startVector(WordGraph graph, Options options) {
+            double[] same = converged.get(graph);
+            if (same != null) {
+                return same.clone();
+            }
+            double[] previous = latest == null ? null : converged.get(latest);
+            if (previous == null || graph.size() == 0) {
+                return null;
+            }
+            int n = graph.size();
+            double[] start = new double[n];
+            double fill = (1 - options.damping()) / n;
+            double sum = 0;
+            for (int v = 0; v < n; v++) {
+                int old = latest.id(graph.word(v));
+                start[v] = old >= 0 ? previous[old] : fill;
+                sum += start[v];
+            }
+            if (sum <= 0) {
+                return null;
+            }
+            for (int v = 0; v < n; v++) {
+                start[v] /= sum;
+            }
+            return start;
+        }
+    }
+
+    @FunctionalInterface
+    private interface RangeKernel {
+        double apply(int lo, int hi);
+    }
+
+    /** 对 [lo, hi) 二分到 SEQUENTIAL_THRESHOLD 以下后顺序执行 kernel，并把各段返回值求和。 */
+    @SuppressWarnings("serial")
+    private static final class RangeSum extends RecursiveTask<Double> {
+        private final int lo;
+        private final int hi;
+        private final RangeKernel kernel;
+
+        RangeSum(int lo, int hi, RangeKernel kernel) {
+            this.lo = lo;
+            this.hi = hi;
+            this.kernel = kernel;
+        }
+
+        @Override
+        protected Double compute() {
+            if (hi - lo <= SEQUENTIAL_THRESHOLD) {
+                return kernel.apply(lo, hi);
+            }
+            int mid = (lo + hi) >>> 1;
+            RangeSum left = new RangeSum(lo, mid, kernel);
+            left.fork();
+            double right = new RangeSum(mid, hi, kernel).compute();
+            return left.join() + right;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.UUID;
+
+public class PageRankTest {
+
+    private WordGraph load(String content) throws Exception {
+        Path tempFile = Files.createTempFile("graph_input_" + UUID.randomUUID(), ".txt");
+        Files.writeString(tempFile, content);
+        return GraphLoader.loadSequential(tempFile);
+    }
+
+    // 原来前端里的推送式迭代，作为对照
+    private double[] reference(WordGraph g, double d, boolean redistribute) {
+        int n = g.size();
+        double[] pr = new double[n];
+        Arrays.fill(pr, 1.0 / n);
+        for (int it = 0; it < 100; it++) {
+            double[] next = new double[n];
+            Arrays.fill(next, (1 - d) / n);
+            double sink = 0;
+            for (int u = 0; u < n; u++) {
+                if (g.outDegree(u) == 0) {
+                    sink += pr[u];
+                    continue;
+                }
+                for (int i = g.outStart(u); i < g.outEnd(u); i++) {
+                    next[g.target(i)] += d * pr[u] / g.outDegree(u);
+                }
+            }
+            double delta = 0;
+            for (int v = 0; v < n; v++) {
+                next[v] += redistribute ? d * sink / n : 0;
+                delta += Math.abs(next[v] - pr[v]);
+            }
+            pr = next;
+            if (delta < 1e-6) {
+                break;
+            }
+        }
+        return pr;
+    }
+
+    @Test
+    public void testDanglingPoliciesMatchReference() throws Exception {
+        WordGraph g = load("a b c a d c x");
+        for (PageRank.DanglingPolicy policy : PageRank.DanglingPolicy.values()) {
+            PageRank.Result result = PageRank.compute(g, new PageRank.Options(0.85, 100, 1e-6, policy));
+            assertArrayEquals(reference(g, 0.85, policy == PageRank.DanglingPolicy.REDISTRIBUTE), result.scores(), 1e-12);
+            assertTrue(result.iterations() > 0 && result.iterations() <= 100);
+            assertTrue(result.residual() < 1e-6);
+        }
+        double sum = Arrays.stream(PageRank.compute(g, PageRank.Options.of(0.85)).scores()).sum();
+        assertEquals(1.0, sum, 1e-9);
+    }
+
+    @Test
+    public void testParallelSweepMatchesReferenceOnCorpus() throws Exception {
+        // 7000+ 个节点，会被切成多个区间并行计算
+        WordGraph g = GraphLoader.loadSequential(Path.of("Cursed Be The Treasure.txt"));
+        PageRank.Result result = PageRank.compute(g, PageRank.Options.of(0.85));
+        assertArrayEquals(reference(g, 0.85, true), result.scores(), 1e-12);
+    }
+
+    @Test
+    public void testWarmStartAfterAppendConvergesFaster() throws Exception {
+        String text = Files.readString(Path.of("Cursed Be The Treasure.txt"));
+        WordGraph before = GraphLoader.loadSequential(Path.of("Cursed Be The Treasure.txt"));
+        WordGraph after = load(text + " the treasure was cursed by a brand new zyzzyva");
+        PageRank.WarmStart warm = new PageRank.WarmStart();
+
+        PageRank.Result cold = warm.compute(before, PageRank.Options.of(0.85));
+        assertEquals(0, cold.iterationsSaved());
+        PageRank.Result updated = warm.compute(after, PageRank.Options.of(0.85));
+        PageRank.Result reference = PageRank.compute(after, PageRank.Options.of(0.85));
+        assertTrue(updated.iterations() < reference.iterations() / 2);
+        assertEquals(cold.iterations() - updated.iterations(), updated.iterationsSaved());
+        assertArrayEquals(reference.scores(), updated.scores(), 1e-6);
+    }
+
+    @Test
+    public void testWarmStartSameGraphNewDamping() throws Exception {
+        WordGraph g = GraphLoader.loadSequential(Path.of("Cursed Be The Treasure.txt"));
+        PageRank.WarmStart warm = new PageRank.WarmStart();
+        warm.compute(g, PageRank.Options.of(0.85));
+        PageRank.Result again = warm.compute(g, PageRank.Options.of(0.85));
+        assertEquals(1, again.iterations());
+        PageRank.Result shifted = warm.compute(g, PageRank.Options.of(0.86));
+        assertTrue(shifted.iterations() < PageRank.compute(g, PageRank.Options.of(0.86)).iterations());
+        assertTrue(shifted.iterationsSaved() > 0);
+    }
+
+    @Test
+    public void testInvalidDanglingPropertyFallsBack() {
+        String previous = System.getProperty("pagerank.dangling");
+        try {
+            System.setProperty("pagerank.dangling", "Ignore ");
+            assertEquals(PageRank.DanglingPolicy.IGNORE, PageRank.DanglingPolicy.fromSystemProperty());
+            System.setProperty("pagerank.dangling", "drop");
+            assertEquals(PageRank.DanglingPolicy.REDISTRIBUTE, PageRank.DanglingPolicy.fromSystemProperty());
+        } finally {
+            if (previous == null) {
+                System.clearProperty("pagerank.dangling");
+            } else {
+                System.setProperty("pagerank.dangling", previous);
+            }
+        }
+    }
+
+    @Test
+    public void testEmptyGraph() throws Exception {
+        PageRank.Result result = PageRank.compute(load(""), PageRank.Options.of(0.85));
+        assertEquals(0, result.scores().length);
+        assertEquals(0, result.iterations());
+    }
+}
@@ -0,0 +1,121 @@
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+/**
+ * 以某个种子词为中心的个性化 PageRank，用蒙特卡洛随机游走估计，不做整图幂迭代。
+ * 每次游走从种子出发，每一步以概率 1 - d 停止，否则沿出边走一步（悬挂节点跳回种子）；
+ * 游走终点的分布恰好就是个性化 PageRank 向量，所以 score(v) 取终点落在 v 的游走比例。
+ * 由 Hoeffding 不等式，W 次游走时每个分量的误差以 1 - FAILURE_PROBABILITY 的概率不超过
+ * sqrt(ln(2 / δ) / (2W))，游走次数按要求的误差上界反推，再受 maxWalks 限制。
+ * 游走按固定大小分成任务并行执行，每个任务的 SplittableRandom 由同一个根生成器按任务顺序 split 得到，结果可复现。
+ * 计数数组按并行流的分段各建一个（约为线程数的几倍），同一分段内的任务累加到同一个数组，
+ * 清零与合并的开销与游走次数无关。
+ */
+final class PersonalizedPageRank {
+    static final double FAILURE_PROBABILITY = 0.01;
+    private static final int WALKS_PER_TASK = 4096;
+
+    private PersonalizedPageRank() {
+    }
+
+    /**
+     * errorBound 为要求的单个分量误差上界，maxWalks 为游走次数上限；
+     * weighted 为 true 时按边的出现次数加权选择出边（别名表，见 EdgeSampler），否则与 randomWalk 一样均匀选择。
+     */
+    record Options(double damping, double errorBound, long maxWalks, boolean weighted) {
+        /** 读取系统属性 ppr.error（默认 0.005）、ppr.walks（默认 1000000）与 ppr.weighted（默认 true）。 */
+        static Options of(double damping) {
+            return new Options(damping,
+                    Double.parseDouble(System.getProperty("ppr.error", "0.005")),
+                    Long.parseLong(System.getProperty("ppr.walks", "1000000")),
+                    Boolean.parseBoolean(System.getProperty("ppr.weighted", "true")));
+        }
+
+        long walks() {
+            long needed = (long) Math.ceil(Math.log(2 / FAILURE_PROBABILITY) / (2 * errorBound * errorBound));
+            return Math.max(1, Math.min(maxWalks, needed));
+        }
+    }
+
+    /** 估计结果：scores 下标为词 ID；errorBound 为按实际游走次数算出的误差上界。 */
+    record Result(int seed, double[] scores, long walks, long steps, double errorBound) {
+        /** 按分数从高到低返回前 k 个词（只包含被游走到的词）。 */
+        Map<String, Double> top(WordGraph graph, int k) {
+            Map<String, Double> top = new LinkedHashMap<>();
+            for (int v : TopK.of(scores, k)) {
+                if (scores[v] <= 0) {
+                    break;
+                }
+                top.put(graph.word(v), scores[v]);
+            }
+            return top;
+        }
+
+        String summary() {
+            return String.format(Locale.ROOT, "%d 次游走，共 %d 步，误差不超过 %.4f（置信度 %.0f%%）",
+                    walks, steps, errorBound, 100 * (1 - FAILURE_PROBABILITY));
+        }
+    }
+
+    static Result estimate(WordGraph graph, int seed, Options options, long randomSeed) {
+        return estimate(graph, seed, options, randomSeed, Progress.NONE);
+    }
+
+    /** 每完成一个任务以 (已完成的游走数, 总游走数) 报告一次进度。 */
+    static Result estimate(WordGraph graph, int seed, Options options, long randomSeed, Progress progress) {
+        if (options.damping() < 0 || options.damping() >= 1) {
+            throw new IllegalArgumentException("damping must be in [0, 1): " + options.damping());
+        }
+        int n = graph.size();
+        long walks = options.walks();
+        EdgeSampler sampler = EdgeSampler.of(graph, options.weighted());
+        int tasks = (int) ((walks + WALKS_PER_TASK - 1) / WALKS_PER_TASK);
+        SplittableRandom root = new SplittableRandom(randomSeed);
+        SplittableRandom[] randoms = new SplittableRandom[tasks];
+        for (int t = 0; t < tasks; t++) {
+            randoms[t] = root.split();
+        }
+        AtomicLong done = new AtomicLong();
+        long[] counts = IntStream.range(0, tasks).parallel()
+                .collect(() -> new long[n + 1], (c, t) -> {
+                    long batch = Math.min(WALKS_PER_TASK, walks - (long) t * WALKS_PER_TASK);
+                    walk(graph, seed, options.damping(), sampler, batch, randoms[t], c);
+                    progress.report(done.addAndGet(batch), walks);
+                }, PersonalizedPageRank::add);
+
+        double[] scores = new double[n];
+        for (int v = 0; v < n; v++) {
+            scores[v] = (double) counts[v] / walks;
+        }
+        return new Result(seed, scores, walks, counts[n],
+                Math.sqrt(Math.log(2 / FAILURE_PROBABILITY) / (2.0 * walks)));
+    }
+
+    /** 执行 walks 次游走，把各节点作为终点的次数累加到 counts，最后一个元素累加总步数。 */
+    private static void walk(WordGraph graph, int seed, double damping, EdgeSampler sampler, long walks,
+                             SplittableRandom random, long[] counts) {
+        long steps = 0;
+        double logDamping = Math.log(damping);
+        for (long w = 0; w < walks; w++) {
+            // 步数服从几何分布 P(L >= k) = d^k，一次抽样代替每步一次停止判定
+            long length = (long) (Math.log(1 - random.nextDouble()) / logDamping);
+            int u = seed;
+            for (long k = 0; k < length; k++) {
+                u = graph.outDegree(u) == 0 ? seed : graph.target(sampler.next(graph, u, random));
+            }
+            steps += length;
+            counts[u]++;
+        }
+        counts[graph.size()] += steps;
+    }
+
+    private static void add(long[] a, long[] b) {
+        for (int i = 0; i < a.length; i++) {
+            a[i] += b[i];
+        }
+    }
+}
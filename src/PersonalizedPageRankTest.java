@@ -0,0 +1,80 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.Map;
+
+public class PersonalizedPageRankTest {
+
+    // 以 seed 为传送目标的幂迭代，悬挂节点的分数同样回到 seed
+    private double[] reference(WordGraph g, int seed, double d, boolean weighted) {
+        int n = g.size();
+        double[] pr = new double[n];
+        pr[seed] = 1;
+        for (int it = 0; it < 200; it++) {
+            double[] next = new double[n];
+            next[seed] += 1 - d;
+            for (int u = 0; u < n; u++) {
+                if (g.outDegree(u) == 0) {
+                    next[seed] += d * pr[u];
+                    continue;
+                }
+                long total = 0;
+                for (int i = g.outStart(u); i < g.outEnd(u); i++) {
+                    total += weighted ? g.weight(i) : 1;
+                }
+                for (int i = g.outStart(u); i < g.outEnd(u); i++) {
+                    next[g.target(i)] += d * pr[u] * (weighted ? g.weight(i) : 1) / total;
+                }
+            }
+            pr = next;
+        }
+        return pr;
+    }
+
+    @Test
+    public void testEstimateWithinErrorBound() throws Exception {
+        WordGraph g = GraphLoader.loadSequential(Path.of("Easy Test.txt"));
+        int seed = g.id("the");
+        for (boolean weighted : new boolean[]{false, true}) {
+            PersonalizedPageRank.Options options = new PersonalizedPageRank.Options(0.85, 0.005, 1_000_000, weighted);
+            PersonalizedPageRank.Result result = PersonalizedPageRank.estimate(g, seed, options, 42);
+            double[] expected = reference(g, seed, 0.85, weighted);
+            assertEquals(options.walks(), result.walks());
+            assertTrue(result.errorBound() <= 0.005 + 1e-12);
+            for (int v = 0; v < g.size(); v++) {
+                assertEquals(expected[v], result.scores()[v], result.errorBound(), g.word(v));
+            }
+        }
+    }
+
+    @Test
+    public void testDeterministicAndTopK() throws Exception {
+        WordGraph g = GraphLoader.loadSequential(Path.of("Cursed Be The Treasure.txt"));
+        PersonalizedPageRank.Options options = new PersonalizedPageRank.Options(0.85, 0.01, 1_000_000, true);
+        PersonalizedPageRank.Result a = PersonalizedPageRank.estimate(g, g.id("treasure"), options, 7);
+        PersonalizedPageRank.Result b = PersonalizedPageRank.estimate(g, g.id("treasure"), options, 7);
+        assertArrayEquals(a.scores(), b.scores());
+
+        Map<String, Double> top = a.top(g, 5);
+        assertEquals(5, top.size());
+        // 种子本身至少拿到 1 - d 的停止概率
+        assertEquals("treasure", top.keySet().iterator().next());
+        double last = Double.MAX_VALUE;
+        for (double score : top.values()) {
+            assertTrue(score <= last);
+            last = score;
+        }
+    }
+
+    @Test
+    public void testWalkBudgetCapsWalks() throws Exception {
+        WordGraph g = GraphLoader.loadSequential(Path.of("Easy Test.txt"));
+        PersonalizedPageRank.Options options = new PersonalizedPageRank.Options(0.85, 0.0001, 10_000, false);
+        PersonalizedPageRank.Result result = PersonalizedPageRank.estimate(g, 0, options, 1);
+        assertEquals(10_000, result.walks());
+        assertTrue(result.errorBound() > 0.0001);
+        assertThrows(IllegalArgumentException.class,
+                () -> PersonalizedPageRank.estimate(g, 0, new PersonalizedPageRank.Options(1, 0.01, 10, false), 1));
+    }
+}
@@ -0,0 +1,12 @@
+/**
+ * 长时间计算的进度回调：done / total 为已完成的工作量。
+ * 并行计算会从多个线程调用 report，实现必须线程安全；
+ * 实现可以抛出 CancellationException 中止计算，异常会原样传给调用者。
+ */
+@FunctionalInterface
+interface Progress {
+    Progress NONE = (done, total) -> {
+    };
+
+    void report(long done, long total);
+}
@@ -3,7 +3,6 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import java.lang.reflect.Method;
 import java.lang.reflect.Field;
-import java.util.Map;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.UUID;
@@ -19,11 +18,11 @@ public class QueryBridgeWordsBlackBoxTest {
         parseMethod = Lab1FX.class.getDeclaredMethod("parseTextToGraph", String.class);
         parseMethod.setAccessible(true);
 
-        // 清空静态 graph 字段
-        Field graphField = Lab1FX.class.getDeclaredField("graph");
-        graphField.setAccessible(true);
-        Map<String, Map<String, Integer>> graph = (Map<String, Map<String, Integer>>) graphField.get(null);
-        graph.clear();
+        // 清空静态图：丢弃已读入的文件，parseTextToGraph 不再累加到旧图上
+        Field liveField = Lab1FX.class.getDeclaredField("live");
+        liveField.setAccessible(true);
+        liveField.set(null, null);
+        prepareGraph("");
     }
 
     private String invoke(String w1, String w2) throws Exception {
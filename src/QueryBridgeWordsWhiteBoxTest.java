@@ -3,6 +3,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -29,6 +30,11 @@ public class QueryBridgeWordsWhiteBoxTest {
 
         parseMethod = Lab1FX.class.getDeclaredMethod("parseTextToGraph", String.class);
         parseMethod.setAccessible(true);
+
+        // 清空静态图：丢弃已读入的文件，parseTextToGraph 不再累加到旧图上
+        Field liveField = Lab1FX.class.getDeclaredField("live");
+        liveField.setAccessible(true);
+        liveField.set(null, null);
     }
 
     // Path 1: both words not in graph
@@ -0,0 +1,253 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * 只监听本机回环地址的 HTTP/JSON 查询服务，其他本地进程无需各自解析语料。
+ * 每个请求在自己的虚拟线程上处理，开始时从 GraphStore 固定当前版本并在整个请求中只用它；
+ * POST /reload 在旁边解析出新图，再以一次原子替换发布，读者从不加锁，也不会看到半新半旧的图。
+ * <pre>
+ *   GET  /bridge?word1=..&amp;word2=..        桥接词
+ *   GET  /generate?text=..[&amp;seed=..]       按桥接词改写文本
+ *   GET  /path?word1=..&amp;word2=..[&amp;k=..]    最短路径；给出 k 时返回前 k 条
+ *   GET  /pagerank[?d=0.85][&amp;k=10]         分数最高的 k 个词，按分数降序
+ *   GET  /walk[?seed=..]                   一条随机游走
+ *   GET  /status                           当前版本的词数与边数
+ *   POST /reload                           重新读取语料文件
+ * </pre>
+ * 成功时返回 {"version": 图的版本号, "result": ...}，参数错误返回 400 与 {"error": "..."}，
+ * 查询本身出错时返回 500 与 {"error": "..."}，不会不带状态行就断开连接。
+ */
+final class QueryServer {
+    private static final int DEFAULT_TOP = 10;
+
+    private final Path source;
+    private GraphStore store;
+    private final PageRank.WarmStart pageRanks = new PageRank.WarmStart();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private HttpServer server;
+
+    QueryServer(Path source) {
+        this.source = source;
+    }
+
+    /** 加载语料并在 127.0.0.1:port 上开始服务；port 为 0 时由系统分配。 */
+    void start(int port) throws IOException {
+        store = new GraphStore(GraphSnapshot.loadOrParse(source));
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    void stop() {
+        server.stop(0);
+        executor.close();
+    }
+
+    int port() {
+        return server.getAddress().getPort();
+    }
+
+    GraphStore store() {
+        return store;
+    }
+
+    /** 重新解析语料，构建完成后发布为新版本；同时只有一个线程在重新加载。 */
+    private synchronized String reload() throws IOException {
+        store.publish(GraphSnapshot.loadOrParse(source));
+        try (GraphStore.Pin pin = store.pin()) {
+            return response(pin.version(), status(pin.graph()));
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String path = exchange.getRequestURI().getPath();
+            String method = exchange.getRequestMethod();
+            Map<String, String> params = parseQuery(exchange.getRequestURI().getRawQuery());
+            int status = 200;
+            String body;
+            try {
+                if (path.equals("/reload")) {
+                    if (!method.equals("POST")) {
+                        send(exchange, 405, error("/reload 只接受 POST"));
+                        return;
+                    }
+                    body = reload();
+                } else if (!method.equals("GET")) {
+                    send(exchange, 405, error(path + " 只接受 GET"));
+                    return;
+                } else {
+                    String result;
+                    long version;
+                    try (GraphStore.Pin pin = store.pin()) {
+                        result = query(path, params, pin.graph());
+                        version = pin.version();
+                    }
+                    if (result == null) {
+                        send(exchange, 404, error("未知路径：" + path));
+                        return;
+                    }
+                    body = response(version, result);
+                }
+            } catch (IllegalArgumentException e) {
+                status = 400;
+                body = error(e.getMessage());
+            } catch (RuntimeException e) {
+                status = 500;
+                body = error("查询失败：" + e);
+            }
+            send(exchange, status, body);
+        }
+    }
+
+    /** 在给定的图上执行一次查询，返回 JSON 值；未知路径返回 null。 */
+    private String query(String path, Map<String, String> params, WordGraph graph) {
+        return switch (path) {
+            case "/bridge" -> quote(GraphQueries.bridgeWords(graph, word(params, "word1"), word(params, "word2")));
+            case "/generate" -> quote(GraphQueries.generateNewText(graph, required(params, "text"), random(params)));
+            case "/path" -> params.containsKey("k")
+                    ? quote(GraphQueries.kShortestPaths(graph, word(params, "word1"), word(params, "word2"),
+                    positive(params, "k")))
+                    : quote(GraphQueries.shortestPath(graph, word(params, "word1"), word(params, "word2")));
+            case "/pagerank" -> pageRank(graph, params);
+            case "/walk" -> quote(GraphQueries.randomWalk(graph, random(params)));
+            case "/status" -> status(graph);
+            default -> null;
+        };
+    }
+
+    private String pageRank(WordGraph graph, Map<String, String> params) {
+        double d = params.containsKey("d") ? number(params, "d") : 0.85;
+        if (d < 0 || d > 1) {
+            throw new IllegalArgumentException("d 必须在 0 到 1 之间");
+        }
+        int k = params.containsKey("k") ? positive(params, "k") : DEFAULT_TOP;
+        PageRank.Result result = pageRanks.compute(graph, PageRank.Options.of(d));
+        StringBuilder sb = new StringBuilder("[");
+        for (int v : result.top(k)) {
+            sb.append(sb.length() > 1 ? ", " : "")
+                    .append("{\"word\": ").append(quote(graph.word(v)))
+                    .append(", \"score\": ").append(String.format(Locale.ROOT, "%.6f", result.scores()[v])).append('}');
+        }
+        return sb.append(']').toString();
+    }
+
+    private static String status(WordGraph graph) {
+        return "{\"words\": " + graph.size() + ", \"edges\": " + graph.edgeCount() + "}";
+    }
+
+    private static String response(long version, String result) {
+        return "{\"version\": " + version + ", \"result\": " + result + "}";
+    }
+
+    private static String error(String message) {
+        return "{\"error\": " + quote(message) + "}";
+    }
+
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = (body + "\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return params;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            params.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    private static String required(Map<String, String> params, String key) {
+        String value = params.get(key);
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException("缺少参数 " + key);
+        }
+        return value;
+    }
+
+    private static String word(Map<String, String> params, String key) {
+        return required(params, key).toLowerCase(Locale.ROOT);
+    }
+
+    private static double number(Map<String, String> params, String key) {
+        try {
+            return Double.parseDouble(required(params, key));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(key + " 必须是数字");
+        }
+    }
+
+    private static int positive(Map<String, String> params, String key) {
+        try {
+            int value = Integer.parseInt(required(params, key));
+            if (value >= 1) {
+                return value;
+            }
+        } catch (NumberFormatException ignored) {
+            // 统一在下面报错
+        }
+        throw new IllegalArgumentException(key + " 必须是正整数");
+    }
+
+    /** 给出 seed 时结果可复现，否则使用当前线程的随机数生成器。 */
+    private static RandomGenerator random(Map<String, String> params) {
+        if (!params.containsKey("seed")) {
+            return ThreadLocalRandom.current();
+        }
+        try {
+            return new SplittableRandom(Long.parseLong(params.get("seed")));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("seed 必须是整数");
+        }
+    }
+
+    /** JSON 字符串字面量。 */
+    static String quote(String s) {
+        StringBuilder sb = new StringBuilder(s.length() + 2).append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
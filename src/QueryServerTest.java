@@ -0,0 +1,106 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+public class QueryServerTest {
+    private final HttpClient client = HttpClient.newHttpClient();
+    private QueryServer server;
+
+    @AfterEach
+    public void stopServer() {
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    private Path start(String content) throws Exception {
+        Path tempFile = Files.createTempFile("graph_input_" + UUID.randomUUID(), ".txt");
+        Files.writeString(tempFile, content);
+        server = new QueryServer(tempFile);
+        server.start(0);
+        return tempFile;
+    }
+
+    private HttpResponse<String> get(String pathAndQuery) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.port() + pathAndQuery)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private String result(String text) {
+        return "{\"version\": 1, \"result\": " + QueryServer.quote(text) + "}\n";
+    }
+
+    @Test
+    public void testQueriesMatchCommandLineOutput() throws Exception {
+        start("the cat sat on the mat and the dog sat on the log");
+        WordGraph g = server.store().read(x -> x);
+        assertEquals(result(GraphQueries.bridgeWords(g, "the", "sat")), get("/bridge?word1=The&word2=sat").body());
+        assertEquals(result(GraphQueries.shortestPath(g, "cat", "log")), get("/path?word1=cat&word2=log").body());
+        assertEquals(result(GraphQueries.kShortestPaths(g, "cat", "dog", 2)),
+                get("/path?word1=cat&word2=dog&k=2").body());
+        String text = URLEncoder.encode("cat on mat", StandardCharsets.UTF_8);
+        assertEquals(get("/generate?seed=5&text=" + text).body(), get("/generate?seed=5&text=" + text).body());
+        assertTrue(get("/pagerank?k=1").body().startsWith("{\"version\": 1, \"result\": [{\"word\": \"the\""));
+
+        HttpResponse<String> missing = get("/bridge?word1=the");
+        assertEquals(400, missing.statusCode());
+        assertEquals("{\"error\": \"缺少参数 word2\"}\n", missing.body());
+        assertEquals(404, get("/nothing").statusCode());
+        assertEquals(405, get("/reload").statusCode());
+    }
+
+    @Test
+    public void testPunctuationTextAndDefaultTopK() throws Exception {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 30; i++) {
+            text.append("w").append((char) ('a' + i % 26)).append(i / 26 == 0 ? "" : "z").append(' ');
+        }
+        start(text.toString());
+        HttpResponse<String> punctuation = get("/generate?text=%21%21%21");
+        assertEquals(200, punctuation.statusCode());
+        assertEquals(result(""), punctuation.body());
+        // 不给 k 时只返回前 10 个词，而不是整个词表
+        assertEquals(10, get("/pagerank").body().split("\\{\"word\"").length - 1);
+    }
+
+    @Test
+    public void testReloadPublishesNewSnapshotAtomically() throws Exception {
+        Path file = start("a b c");
+        WordGraph before = server.store().read(g -> g);
+        List<CompletableFuture<HttpResponse<String>>> inFlight = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            inFlight.add(client.sendAsync(HttpRequest.newBuilder(
+                    URI.create("http://127.0.0.1:" + server.port() + "/bridge?word1=a&word2=d")).build(),
+                    HttpResponse.BodyHandlers.ofString()));
+        }
+        Files.writeString(file, "a b d");
+        HttpResponse<String> reload = client.send(HttpRequest.newBuilder(
+                        URI.create("http://127.0.0.1:" + server.port() + "/reload"))
+                .POST(HttpRequest.BodyPublishers.noBody()).build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals("{\"version\": 2, \"result\": {\"words\": 3, \"edges\": 2}}\n", reload.body());
+
+        // 每个请求的结果都与它看到的版本一致
+        String old = "{\"version\": 1, \"result\": " + QueryServer.quote(GraphQueries.bridgeWords(before, "a", "d")) + "}\n";
+        String fresh = "{\"version\": 2, \"result\": " + QueryServer.quote("The bridge words from \"a\" to \"d\" are: b.") + "}\n";
+        for (CompletableFuture<HttpResponse<String>> response : inFlight) {
+            String body = response.join().body();
+            assertTrue(body.equals(old) || body.equals(fresh), body);
+        }
+        assertEquals(fresh, get("/bridge?word1=a&word2=d").body());
+        assertEquals(2, server.store().version());
+        assertEquals(1, server.store().liveVersions());
+    }
+}
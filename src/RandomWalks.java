@@ -0,0 +1,143 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * 批量随机游走。停止规则与 randomWalk 相同：从均匀随机选出的节点出发，
+ * 走到没有出边的节点，或即将第二次经过同一条边时停止（这条边不计入路径）。
+ * 出边由 EdgeSampler 以 O(1) 采样；已经过的边以 (from << 32 | to) 的 long 键记录在开放寻址表中。
+ * 游走按固定大小分成任务并行生成，每个任务的 SplittableRandom 由同一个根生成器按顺序 split，结果可复现。
+ */
+final class RandomWalks {
+    private static final int WALKS_PER_TASK = 1024;
+
+    private RandomWalks() {
+    }
+
+    /** 生成 count 条游走，每条为节点 ID 序列；图为空时返回空数组。 */
+    static int[][] generate(WordGraph graph, int count, boolean weighted, long seed) {
+        return generate(graph, count, weighted, seed, Progress.NONE);
+    }
+
+    /** 每完成一个任务以 (已生成的条数, count) 报告一次进度。 */
+    static int[][] generate(WordGraph graph, int count, boolean weighted, long seed, Progress progress) {
+        if (graph.size() == 0) {
+            return new int[0][];
+        }
+        EdgeSampler sampler = EdgeSampler.of(graph, weighted);
+        int[][] walks = new int[count][];
+        int tasks = (count + WALKS_PER_TASK - 1) / WALKS_PER_TASK;
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom[] randoms = new SplittableRandom[tasks];
+        for (int t = 0; t < tasks; t++) {
+            randoms[t] = root.split();
+        }
+        AtomicInteger done = new AtomicInteger();
+        IntStream.range(0, tasks).parallel().forEach(t -> {
+            Walker walker = new Walker(graph, sampler);
+            int end = Math.min(count, (t + 1) * WALKS_PER_TASK);
+            for (int i = t * WALKS_PER_TASK; i < end; i++) {
+                walks[i] = walker.walk(randoms[t].nextInt(graph.size()), randoms[t]);
+            }
+            progress.report(done.addAndGet(end - t * WALKS_PER_TASK), count);
+        });
+        return walks;
+    }
+
+    /** 单条游走，供 randomWalk 使用。 */
+    static int[] walk(WordGraph graph, EdgeSampler sampler, int start, SplittableRandom random) {
+        return new Walker(graph, sampler).walk(start, random);
+    }
+
+    /** 单线程的游走器，复用路径缓冲区和已访问边集合。 */
+    private static final class Walker {
+        private final WordGraph graph;
+        private final EdgeSampler sampler;
+        private final EdgeSet visited = new EdgeSet();
+        private int[] path = new int[16];
+
+        Walker(WordGraph graph, EdgeSampler sampler) {
+            this.graph = graph;
+            this.sampler = sampler;
+        }
+
+        int[] walk(int start, SplittableRandom random) {
+            visited.clear();
+            int length = 0;
+            int current = start;
+            path[length++] = current;
+            while (graph.outDegree(current) > 0) {
+                int next = graph.target(sampler.next(graph, current, random));
+                if (!visited.add((long) current << 32 | next)) {
+                    break;
+                }
+                if (length == path.length) {
+                    path = Arrays.copyOf(path, length * 2);
+                }
+                path[length++] = next;
+                current = next;
+            }
+            return Arrays.copyOf(path, length);
+        }
+    }
+
+    /**
+     * long 键的开放寻址集合（线性探测，键非负，-1 表示空槽）。
+     * 记录被占用的槽位，clear 只重置这些槽位，代价与上一条游走的长度成正比。
+     */
+    private static final class EdgeSet {
+        private static final long EMPTY = -1;
+
+        private long[] keys = newTable(64);
+        private int[] used = new int[32];
+        private int size;
+
+        boolean add(long key) {
+            if (2 * (size + 1) > keys.length) {
+                grow();
+            }
+            int mask = keys.length - 1;
+            int slot = hash(key) & mask;
+            while (keys[slot] != EMPTY) {
+                if (keys[slot] == key) {
+                    return false;
+                }
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            used[size++] = slot;
+            return true;
+        }
+
+        void clear() {
+            for (int i = 0; i < size; i++) {
+                keys[used[i]] = EMPTY;
+            }
+            size = 0;
+        }
+
+        private void grow() {
+            long[] old = keys;
+            int[] oldUsed = used;
+            int oldSize = size;
+            keys = newTable(old.length * 2);
+            used = new int[keys.length / 2];
+            size = 0;
+            for (int i = 0; i < oldSize; i++) {
+                add(old[oldUsed[i]]);
+            }
+        }
+
+        private static long[] newTable(int capacity) {
+            long[] table = new long[capacity];
+            Arrays.fill(table, EMPTY);
+            return table;
+        }
+
+        private static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
@@ -0,0 +1,98 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.WeakReference;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+public class RandomWalksTest {
+
+    private WordGraph load(String content) throws Exception {
+        Path tempFile = Files.createTempFile("graph_input_" + UUID.randomUUID(), ".txt");
+        Files.writeString(tempFile, content);
+        return GraphLoader.loadSequential(tempFile);
+    }
+
+    private static String name(int i) {
+        StringBuilder sb = new StringBuilder("w");
+        do {
+            sb.append((char) ('a' + i % 26));
+            i /= 26;
+        } while (i > 0);
+        return sb.toString();
+    }
+
+    @Test
+    public void testWalksFollowStoppingRule() throws Exception {
+        WordGraph g = GraphLoader.loadSequential(Path.of("Cursed Be The Treasure.txt"));
+        for (boolean weighted : new boolean[]{false, true}) {
+            int[][] walks = RandomWalks.generate(g, 5000, weighted, 11);
+            assertEquals(5000, walks.length);
+            for (int[] walk : walks) {
+                Set<Long> edges = new HashSet<>();
+                for (int i = 0; i + 1 < walk.length; i++) {
+                    assertTrue(g.hasEdge(walk[i], walk[i + 1]));
+                    assertTrue(edges.add((long) walk[i] << 32 | walk[i + 1]), "edge repeated");
+                }
+                // 停在有出边的节点上，说明刚才抽到的边已经走过
+                int last = walk[walk.length - 1];
+                if (g.outDegree(last) > 0) {
+                    boolean usedOutEdge = false;
+                    for (int i = 0; i + 1 < walk.length; i++) {
+                        usedOutEdge |= walk[i] == last;
+                    }
+                    assertTrue(usedOutEdge);
+                }
+            }
+            assertArrayEquals(walks, RandomWalks.generate(g, 5000, weighted, 11));
+        }
+    }
+
+    @Test
+    public void testLongCycleIsWalkedOnce() throws Exception {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i <= 1000; i++) {
+            text.append(name(i % 1000)).append(' ');
+        }
+        WordGraph g = load(text.toString());
+        int[] walk = RandomWalks.walk(g, EdgeSampler.UNIFORM, g.id(name(0)), new SplittableRandom(3));
+        assertEquals(1001, walk.length);
+        assertEquals(walk[0], walk[1000]);
+    }
+
+    @Test
+    public void testAliasTableMatchesEdgeCounts() throws Exception {
+        WordGraph g = load("a b a b a b a c a d a b");
+        EdgeSampler sampler = EdgeSampler.weighted(g);
+        int a = g.id("a");
+        int[] hits = new int[g.size()];
+        SplittableRandom random = new SplittableRandom(5);
+        int samples = 200_000;
+        for (int i = 0; i < samples; i++) {
+            hits[g.target(sampler.next(g, a, random))]++;
+        }
+        // a -> b 出现 4 次，a -> c 与 a -> d 各 1 次
+        assertEquals(4.0 / 6, (double) hits[g.id("b")] / samples, 0.01);
+        assertEquals(1.0 / 6, (double) hits[g.id("c")] / samples, 0.01);
+        assertEquals(1.0 / 6, (double) hits[g.id("d")] / samples, 0.01);
+        assertSame(sampler, EdgeSampler.weighted(g));
+    }
+
+    // 缓存的别名表不引用图，图不再被使用后可以被回收
+    @Test
+    public void testAliasCacheDoesNotPinGraph() throws Exception {
+        WordGraph g = load("a b a c a b");
+        EdgeSampler.weighted(g);
+        WeakReference<WordGraph> ref = new WeakReference<>(g);
+        g = null;
+        for (int i = 0; i < 50 && ref.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(ref.get());
+    }
+}
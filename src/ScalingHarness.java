@@ -0,0 +1,301 @@
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * 规模测试：对每个大小用 CorpusGenerator 生成语料，经 Lab1.parseTextToGraph 加载，
+ * 再在加载出的图上执行每项操作，记录耗时与内存随语料大小的变化，写出 scaling.csv 与 scaling.svg（双对数坐标）。
+ * 查询直接调用 Lab1 委托的 GraphQueries / PageRank：PageRank 每次从头迭代，不受上一个大小热启动的影响；
+ * 随机游走不写 random_walk.txt。查询参数按 Zipf 分布从同一词表中抽取，固定种子下每次运行相同。
+ * 测量期间关闭 .wgs 快照，每个语料测完即删除（同样的选项总能重新生成）。
+ * 内存列：每次操作分配的字节数（所有线程合计）、操作期间的堆峰值（各堆内存池峰值之和），
+ * 以及加载后经 GC 仍被占用的堆（减去加载前的基线，即图和 Lab1 保存的加载状态）。
+ */
+final class ScalingHarness {
+    static final String[] OPERATIONS = {"parse", "bridge", "generate", "path", "pagerank", "walk"};
+    private static final String CSV_HEADER =
+            "size_bytes,words,vertices,edges,operation,runs,mean_ms,min_ms,alloc_mb_per_op,peak_heap_mb,retained_heap_mb";
+    private static final double MB = 1024.0 * 1024.0;
+    private static final int GENERATE_WORDS = 20;
+
+    private final CorpusGenerator.Options corpus;
+    private final int runs;
+    private final Path directory;
+    private long sink;
+
+    /** 某个大小下一项操作的测量结果；内存单位均为 MB。 */
+    record Row(long sizeBytes, long words, int vertices, int edges, String operation, int runs,
+               double meanMillis, double minMillis, double allocPerOp, double peakHeap, double retainedHeap) {
+        String toCsv() {
+            return String.format(Locale.ROOT, "%d,%d,%d,%d,%s,%d,%.3f,%.3f,%.3f,%.1f,%.1f", sizeBytes, words,
+                    vertices, edges, operation, runs, meanMillis, minMillis, allocPerOp, peakHeap, retainedHeap);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Operation {
+        Object run(int i) throws IOException;
+    }
+
+    private record Measurement(int runs, double meanMillis, double minMillis, double allocPerOp, double peakHeap) {
+    }
+
+    /** corpus 中的字节数被忽略，由 run 的各个大小取代；每项查询执行 runs 次（另有一次预热），解析只执行一次。 */
+    ScalingHarness(CorpusGenerator.Options corpus, int runs, Path directory) {
+        if (runs < 1) {
+            throw new IllegalArgumentException("执行次数必须为正数");
+        }
+        this.corpus = corpus;
+        this.runs = runs;
+        this.directory = directory;
+    }
+
+    List<Row> run(long[] sizes, PrintStream log) throws IOException {
+        Files.createDirectories(directory);
+        String snapshots = System.getProperty("graph.snapshot");
+        System.setProperty("graph.snapshot", "false");
+        try {
+            List<Row> rows = new ArrayList<>();
+            CorpusGenerator.Sampler sampler = new CorpusGenerator.Sampler(corpus.vocabulary(), corpus.exponent());
+            double baseline = retainedHeap();
+            for (long size : sizes) {
+                rows.addAll(measureSize(size, sampler, baseline, log));
+            }
+            Files.write(directory.resolve("scaling.csv"), csv(rows));
+            Files.writeString(directory.resolve("scaling.svg"), svg(rows));
+            return rows;
+        } finally {
+            if (snapshots == null) {
+                System.clearProperty("graph.snapshot");
+            } else {
+                System.setProperty("graph.snapshot", snapshots);
+            }
+        }
+    }
+
+    private List<Row> measureSize(long size, CorpusGenerator.Sampler sampler, double baseline, PrintStream log)
+            throws IOException {
+        Path file = directory.resolve(String.format(Locale.ROOT, "zipf-v%d-s%s-seed%d-%s.txt", corpus.vocabulary(),
+                corpus.exponent(), corpus.seed(), CorpusGenerator.formatSize(size)));
+        List<Row> rows = new ArrayList<>();
+        try {
+            log.printf("生成 %s 语料……\n", CorpusGenerator.formatSize(size));
+            CorpusGenerator.Stats stats = CorpusGenerator.write(corpus.withBytes(size), file);
+            Measurement parse = measure(1, false, i -> {
+                Lab1.clearGraph();
+                Lab1.parseTextToGraph(file.toString());
+                return null;
+            });
+            double retained = Math.max(0, retainedHeap() - baseline);
+            try (GraphStore.Pin pin = Lab1.store().pin()) {
+                WordGraph graph = pin.graph();
+                log.printf("  %d 个词、%d 条边，解析 %.1f ms，常驻 %.1f MB\n", graph.size(), graph.edgeCount(),
+                        parse.meanMillis(), retained);
+                Map<String, Measurement> measurements = new LinkedHashMap<>();
+                measurements.put("parse", parse);
+                measureQueries(graph, sampler, measurements);
+                for (Map.Entry<String, Measurement> e : measurements.entrySet()) {
+                    Measurement m = e.getValue();
+                    rows.add(new Row(stats.bytes(), stats.words(), graph.size(), graph.edgeCount(), e.getKey(),
+                            m.runs(), m.meanMillis(), m.minMillis(), m.allocPerOp(), m.peakHeap(), retained));
+                    if (!e.getKey().equals("parse")) {
+                        log.printf(Locale.ROOT, "  %-8s %10.3f ms/次  %8.2f MB/次\n", e.getKey(), m.meanMillis(),
+                                m.allocPerOp());
+                    }
+                }
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+        return rows;
+    }
+
+    private void measureQueries(WordGraph graph, CorpusGenerator.Sampler sampler, Map<String, Measurement> out)
+            throws IOException {
+        SplittableRandom random = new SplittableRandom(corpus.seed());
+        int n = runs + 1;
+        String[] from = new String[n];
+        String[] to = new String[n];
+        String[] texts = new String[n];
+        for (int i = 0; i < n; i++) {
+            from[i] = CorpusGenerator.word(sampler.next(random));
+            to[i] = CorpusGenerator.word(sampler.next(random));
+            StringBuilder text = new StringBuilder();
+            for (int w = 0; w < GENERATE_WORDS; w++) {
+                text.append(w > 0 ? " " : "").append(CorpusGenerator.word(sampler.next(random)));
+            }
+            texts[i] = text.toString();
+        }
+        out.put("bridge", measure(runs, true, i -> GraphQueries.bridgeWords(graph, from[i], to[i])));
+        out.put("generate", measure(runs, true, i -> GraphQueries.generateNewText(graph, texts[i], random)));
+        out.put("path", measure(runs, true, i -> GraphQueries.shortestPath(graph, from[i], to[i])));
+        out.put("pagerank", measure(runs, true,
+                i -> PageRank.compute(graph, PageRank.Options.of(0.85)).toMap(graph)));
+        out.put("walk", measure(runs, true, i -> GraphQueries.randomWalk(graph, random)));
+    }
+
+    /** 执行 op(0..count-1)；warmUp 为 true 时先多执行一次 op(count) 且不计入结果。 */
+    private Measurement measure(int count, boolean warmUp, Operation op) throws IOException {
+        if (warmUp) {
+            sink += op.run(count).hashCode();
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        List<MemoryPoolMXBean> heap = heapPools();
+        heap.forEach(MemoryPoolMXBean::resetPeakUsage);
+        long allocated = threads.getTotalThreadAllocatedBytes();
+        double total = 0;
+        double min = Double.MAX_VALUE;
+        for (int i = 0; i < count; i++) {
+            long start = System.nanoTime();
+            Object result = op.run(i);
+            double millis = (System.nanoTime() - start) / 1e6;
+            sink += result == null ? 0 : result.hashCode();
+            total += millis;
+            min = Math.min(min, millis);
+        }
+        double allocPerOp = (threads.getTotalThreadAllocatedBytes() - allocated) / MB / count;
+        double peak = 0;
+        for (MemoryPoolMXBean pool : heap) {
+            peak += pool.getPeakUsage().getUsed() / MB;
+        }
+        return new Measurement(count, total / count, min, allocPerOp, peak);
+    }
+
+    private static List<MemoryPoolMXBean> heapPools() {
+        List<MemoryPoolMXBean> pools = new ArrayList<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+                pools.add(pool);
+            }
+        }
+        return pools;
+    }
+
+    private static double retainedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed() / MB;
+    }
+
+    static List<String> csv(List<Row> rows) {
+        List<String> lines = new ArrayList<>(rows.size() + 1);
+        lines.add(CSV_HEADER);
+        for (Row row : rows) {
+            lines.add(row.toCsv());
+        }
+        return lines;
+    }
+
+    /** 左图为每次操作的平均耗时，右图为每次操作分配的内存与加载后常驻的堆，横轴都是语料大小（MB）。 */
+    static String svg(List<Row> rows) {
+        Map<String, List<double[]>> time = new LinkedHashMap<>();
+        Map<String, List<double[]>> memory = new LinkedHashMap<>();
+        for (Row row : rows) {
+            double x = row.sizeBytes() / MB;
+            time.computeIfAbsent(row.operation(), k -> new ArrayList<>()).add(new double[]{x, row.meanMillis()});
+            memory.computeIfAbsent(row.operation(), k -> new ArrayList<>()).add(new double[]{x, row.allocPerOp()});
+            if (row.operation().equals("parse")) {
+                memory.computeIfAbsent("常驻堆", k -> new ArrayList<>()).add(new double[]{x, row.retainedHeap()});
+            }
+        }
+        StringBuilder svg = new StringBuilder()
+                .append("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"1000\" height=\"420\" ")
+                .append("font-family=\"sans-serif\" font-size=\"11\">\n")
+                .append("<rect width=\"1000\" height=\"420\" fill=\"white\"/>\n");
+        panel(svg, 0, "每次操作耗时（ms）", time);
+        panel(svg, 500, "每次操作分配 / 常驻堆（MB）", memory);
+        return svg.append("</svg>\n").toString();
+    }
+
+    private static final String[] COLORS = {"#1f77b4", "#ff7f0e", "#2ca02c", "#d62728", "#9467bd", "#8c564b", "#000000"};
+
+    private static void panel(StringBuilder svg, int left, String title, Map<String, List<double[]>> series) {
+        int x0 = left + 60;
+        int y0 = 360;
+        int width = 300;
+        int height = 300;
+        double[] xr = decades(series, 0);
+        double[] yr = decades(series, 1);
+        svg.append(String.format(Locale.ROOT, "<text x=\"%d\" y=\"40\" font-size=\"13\">%s</text>\n", x0, title));
+        svg.append(String.format(Locale.ROOT,
+                "<rect x=\"%d\" y=\"%d\" width=\"%d\" height=\"%d\" fill=\"none\" stroke=\"#999\"/>\n",
+                x0, y0 - height, width, height));
+        for (int d = (int) xr[0]; d <= xr[1]; d++) {
+            double x = x0 + (d - xr[0]) / (xr[1] - xr[0]) * width;
+            svg.append(String.format(Locale.ROOT, "<line x1=\"%.1f\" y1=\"%d\" x2=\"%.1f\" y2=\"%d\" stroke=\"#eee\"/>"
+                            + "<text x=\"%.1f\" y=\"%d\" text-anchor=\"middle\">%s</text>\n",
+                    x, y0 - height, x, y0, x, y0 + 15, tick(d)));
+        }
+        for (int d = (int) yr[0]; d <= yr[1]; d++) {
+            double y = y0 - (d - yr[0]) / (yr[1] - yr[0]) * height;
+            svg.append(String.format(Locale.ROOT, "<line x1=\"%d\" y1=\"%.1f\" x2=\"%d\" y2=\"%.1f\" stroke=\"#eee\"/>"
+                            + "<text x=\"%d\" y=\"%.1f\" text-anchor=\"end\">%s</text>\n",
+                    x0, y, x0 + width, y, x0 - 5, y + 4, tick(d)));
+        }
+        svg.append(String.format(Locale.ROOT, "<text x=\"%d\" y=\"%d\" text-anchor=\"middle\">语料大小（MB）</text>\n",
+                x0 + width / 2, y0 + 32));
+        int color = 0;
+        for (Map.Entry<String, List<double[]>> e : series.entrySet()) {
+            String stroke = COLORS[color % COLORS.length];
+            StringBuilder points = new StringBuilder();
+            for (double[] p : e.getValue()) {
+                if (p[1] <= 0) {
+                    continue;
+                }
+                double x = x0 + (Math.log10(p[0]) - xr[0]) / (xr[1] - xr[0]) * width;
+                double y = y0 - (Math.log10(p[1]) - yr[0]) / (yr[1] - yr[0]) * height;
+                points.append(String.format(Locale.ROOT, "%.1f,%.1f ", x, y));
+                svg.append(String.format(Locale.ROOT, "<circle cx=\"%.1f\" cy=\"%.1f\" r=\"2.5\" fill=\"%s\"/>\n",
+                        x, y, stroke));
+            }
+            svg.append(String.format(Locale.ROOT, "<polyline points=\"%s\" fill=\"none\" stroke=\"%s\"/>\n",
+                    points.toString().trim(), stroke));
+            int ly = y0 - height + 12 + 16 * color;
+            svg.append(String.format(Locale.ROOT, "<line x1=\"%d\" y1=\"%d\" x2=\"%d\" y2=\"%d\" stroke=\"%s\" "
+                            + "stroke-width=\"2\"/><text x=\"%d\" y=\"%d\">%s</text>\n",
+                    x0 + width + 10, ly - 4, x0 + width + 28, ly - 4, stroke, x0 + width + 32, ly, e.getKey()));
+            color++;
+        }
+    }
+
+    /** 坐标轴范围：覆盖所有正值的整十倍区间 [floor(log10 min), ceil(log10 max)]，至少跨一个十倍。 */
+    private static double[] decades(Map<String, List<double[]>> series, int axis) {
+        double min = Double.MAX_VALUE;
+        double max = 0;
+        for (List<double[]> points : series.values()) {
+            for (double[] p : points) {
+                if (p[axis] > 0) {
+                    min = Math.min(min, p[axis]);
+                    max = Math.max(max, p[axis]);
+                }
+            }
+        }
+        if (max == 0) {
+            return new double[]{0, 1};
+        }
+        double lo = Math.floor(Math.log10(min));
+        double hi = Math.ceil(Math.log10(max));
+        return new double[]{lo, hi > lo ? hi : lo + 1};
+    }
+
+    private static String tick(int decade) {
+        if (decade >= 0 && decade <= 6) {
+            return Long.toString((long) Math.pow(10, decade));
+        }
+        if (decade < 0 && decade >= -3) {
+            return String.format(Locale.ROOT, "%." + -decade + "f", Math.pow(10, decade));
+        }
+        return "1e" + decade;
+    }
+}
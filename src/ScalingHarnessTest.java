@@ -0,0 +1,41 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+public class ScalingHarnessTest {
+
+    @Test
+    public void testEveryOperationIsMeasuredAtEverySize() throws Exception {
+        Path dir = Files.createTempDirectory("scaling");
+        ScalingHarness harness = new ScalingHarness(new CorpusGenerator.Options(2000, 1.0, 0, 5), 2, dir);
+        List<ScalingHarness.Row> rows = harness.run(new long[]{20_000, 80_000},
+                new PrintStream(new ByteArrayOutputStream()));
+
+        assertEquals(2 * ScalingHarness.OPERATIONS.length, rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            ScalingHarness.Row row = rows.get(i);
+            assertEquals(ScalingHarness.OPERATIONS[i % ScalingHarness.OPERATIONS.length], row.operation());
+            assertEquals(row.operation().equals("parse") ? 1 : 2, row.runs());
+            assertTrue(row.sizeBytes() >= (i < ScalingHarness.OPERATIONS.length ? 20_000 : 80_000));
+            assertTrue(row.meanMillis() >= row.minMillis() && row.minMillis() >= 0);
+        }
+        assertTrue(rows.getLast().vertices() > rows.getFirst().vertices());
+        assertTrue(rows.getLast().edges() > rows.getFirst().edges());
+
+        List<String> csv = Files.readAllLines(dir.resolve("scaling.csv"));
+        assertEquals(rows.size() + 1, csv.size());
+        assertTrue(csv.getFirst().startsWith("size_bytes,words,vertices,edges,operation"));
+        String svg = Files.readString(dir.resolve("scaling.svg"));
+        assertTrue(svg.startsWith("<svg") && svg.contains("pagerank") && svg.contains("常驻堆"));
+        // 语料测完即删除，快照选项恢复原状
+        try (var files = Files.list(dir)) {
+            assertEquals(2, files.count());
+        }
+        assertNull(System.getProperty("graph.snapshot"));
+    }
+}
@@ -0,0 +1,403 @@
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 基于 int 节点 ID 的 Dijkstra。
+ * 优先队列为带位置索引的二叉堆，支持真正的 decrease-key，堆中不会残留过期元素；
+ * 堆按 (距离, 节点 ID) 排序，松弛只在严格变短时更新前驱，因此等长路径的选择是确定的：
+ * 每个节点的前驱是所有能以最短距离到达它的入邻居中 (距离, ID) 最小的那个。
+ */
+final class ShortestPaths {
+    static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    private ShortestPaths() {
+    }
+
+    /** 单源最短路结果；prev 中 -1 表示没有前驱（源点或不可达）。 */
+    record Tree(int source, int[] dist, int[] prev) {
+        boolean reaches(int target) {
+            return dist[target] != UNREACHABLE;
+        }
+
+        int[] nodes(int target) {
+            int hops = 0;
+            for (int at = target; at != -1; at = prev[at]) {
+                hops++;
+            }
+            int[] nodes = new int[hops];
+            for (int at = target; at != -1; at = prev[at]) {
+                nodes[--hops] = at;
+            }
+            return nodes;
+        }
+
+        List<String> path(WordGraph graph, int target) {
+            LinkedList<String> path = new LinkedList<>();
+            for (int at = target; at != -1; at = prev[at]) {
+                path.addFirst(graph.word(at));
+            }
+            return path;
+        }
+    }
+
+    /** 计算 source 到所有节点的最短路。 */
+    static Tree fromSource(WordGraph graph, int source) {
+        return search(graph, source, -1);
+    }
+
+    /** 点对点查询：target 出堆后立即停止，只保证 target 及其路径上节点的结果是最终值。 */
+    static Tree between(WordGraph graph, int source, int target) {
+        return search(graph, source, target);
+    }
+
+    /**
+     * 双向 Dijkstra 点对点查询，结果（长度以及等长时选出的路径）与 between 完全相同。
+     * 第一阶段：正向沿出边、反向沿入边交替扩展，直到 topF + topB >= mu，得到最短距离 d。
+     * 第二阶段：从 source 正向重跑一次，但只松弛满足 dist(s, v) + lb(v) <= d 的节点，
+     * 其中 lb(v) 是 v 到 target 距离的下界：反向已确定的节点取其精确距离，其余节点取反向堆顶。
+     * 所有最短路上的节点都不会被剪掉，而前驱只取决于这些节点，所以等长路径的选择规则不变；
+     * 被剪掉的节点只是不可能出现在任何最短路上的那部分搜索空间。
+     */
+    static Tree bidirectional(WordGraph graph, int source, int target) {
+        int n = graph.size();
+        if (source == target) {
+            return between(graph, source, target);
+        }
+        int[] distF = new int[n];
+        int[] distB = new int[n];
+        Arrays.fill(distF, UNREACHABLE);
+        Arrays.fill(distB, UNREACHABLE);
+        boolean[] settledB = new boolean[n];
+        distF[source] = 0;
+        distB[target] = 0;
+        IndexedHeap forward = new IndexedHeap(distF);
+        IndexedHeap backward = new IndexedHeap(distB);
+        forward.push(source);
+        backward.push(target);
+
+        long best = Long.MAX_VALUE;
+        while (!forward.isEmpty() && !backward.isEmpty()
+                && (long) distF[forward.peek()] + distB[backward.peek()] < best) {
+            if (distF[forward.peek()] <= distB[backward.peek()]) {
+                int u = forward.poll();
+                for (int i = graph.outStart(u); i < graph.outEnd(u); i++) {
+                    int v = graph.target(i);
+                    int candidate = distF[u] + graph.weight(i);
+                    if (candidate < distF[v]) {
+                        distF[v] = candidate;
+                        forward.pushOrDecrease(v);
+                    }
+                    if (distB[v] != UNREACHABLE) {
+                        best = Math.min(best, (long) candidate + distB[v]);
+                    }
+                }
+            } else {
+                int u = backward.poll();
+                settledB[u] = true;
+                for (int i = graph.inStart(u); i < graph.inEnd(u); i++) {
+                    int v = graph.source(i);
+                    int candidate = distB[u] + graph.inWeight(i);
+                    if (candidate < distB[v]) {
+                        distB[v] = candidate;
+                        backward.pushOrDecrease(v);
+                    }
+                    if (distF[v] != UNREACHABLE) {
+                        best = Math.min(best, (long) candidate + distF[v]);
+                    }
+                }
+            }
+        }
+
+        int[] dist = new int[n];
+        int[] prev = new int[n];
+        Arrays.fill(dist, UNREACHABLE);
+        Arrays.fill(prev, -1);
+        dist[source] = 0;
+        if (best == Long.MAX_VALUE) {
+            return new Tree(source, dist, prev);
+        }
+        // 反向堆已空说明所有能到达 target 的节点都已确定，其余节点下界为无穷大
+        long frontier = backward.isEmpty() ? Long.MAX_VALUE : distB[backward.peek()];
+
+        IndexedHeap heap = new IndexedHeap(dist);
+        heap.push(source);
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+            if (u == target) {
+                break;
+            }
+            for (int i = graph.outStart(u); i < graph.outEnd(u); i++) {
+                int v = graph.target(i);
+                int candidate = dist[u] + graph.weight(i);
+                long lowerBound = settledB[v] ? distB[v] : frontier;
+                if (candidate < dist[v] && lowerBound <= best - candidate) {
+                    dist[v] = candidate;
+                    prev[v] = u;
+                    heap.pushOrDecrease(v);
+                }
+            }
+        }
+        return new Tree(source, dist, prev);
+    }
+
+    private static Tree search(WordGraph graph, int source, int target) {
+        int n = graph.size();
+        int[] dist = new int[n];
+        int[] prev = new int[n];
+        Arrays.fill(dist, UNREACHABLE);
+        Arrays.fill(prev, -1);
+        dist[source] = 0;
+
+        IndexedHeap heap = new IndexedHeap(dist);
+        heap.push(source);
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+            if (u == target) {
+                break;
+            }
+            for (int i = graph.outStart(u); i < graph.outEnd(u); i++) {
+                int v = graph.target(i);
+                int candidate = dist[u] + graph.weight(i);
+                if (candidate < dist[v]) {
+                    dist[v] = candidate;
+                    prev[v] = u;
+                    heap.pushOrDecrease(v);
+                }
+            }
+        }
+        return new Tree(source, dist, prev);
+    }
+
+    /**
+     * 按源点缓存完整的单源最短路树（dist / prev 数组），LRU 淘汰，总内存不超过 maxBytes。
+     * 命中后回答任意目标只需沿 prev 回溯，代价与路径长度成正比。
+     * 缓存绑定到构建它的 WordGraph 实例，图被重新加载后自动清空；追加文本时用 update 增量失效。
+     */
+    static final class TreeCache {
+        private final long maxBytes;
+        private final LinkedHashMap<Integer, Tree> trees = new LinkedHashMap<>(16, 0.75f, true);
+        private WordGraph graph;
+        private long bytes;
+        private long hits;
+        private long misses;
+
+        TreeCache(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        /** 查找 source 的缓存树，未命中返回 null。 */
+        synchronized Tree get(WordGraph graph, int source) {
+            bind(graph);
+            Tree tree = trees.get(source);
+            if (tree == null) {
+                misses++;
+            } else {
+                hits++;
+            }
+            return tree;
+        }
+
+        /** 返回 source 的完整最短路树，未命中时计算并放入缓存；计算在锁外进行。 */
+        Tree fullTree(WordGraph graph, int source) {
+            Tree tree = get(graph, source);
+            if (tree == null) {
+                tree = fromSource(graph, source);
+                put(graph, tree);
+            }
+            return tree;
+        }
+
+        synchronized void put(WordGraph graph, Tree tree) {
+            bind(graph);
+            long size = sizeOf(tree);
+            if (size > maxBytes) {
+                return;
+            }
+            Tree old = trees.put(tree.source(), tree);
+            bytes += size - (old == null ? 0 : sizeOf(old));
+            Iterator<Map.Entry<Integer, Tree>> eldest = trees.entrySet().iterator();
+            while (bytes > maxBytes && eldest.hasNext()) {
+                bytes -= sizeOf(eldest.next().getValue());
+                eldest.remove();
+            }
+        }
+
+        synchronized void invalidate() {
+            trees.clear();
+            bytes = 0;
+            graph = null;
+        }
+
+        /**
+         * 追加文本后按变化的边增量失效，而不是清空整个缓存。
+         * 变化的边 (u, v) 只有在 u 从源点可达时才可能影响这棵树；若它是权重增加的旧边且不是树边，
+         * 距离和前驱都不会变，这样的树原样保留。
+         */
+        synchronized void update(LiveGraph.Delta delta) {
+            if (graph != delta.before() || delta.changed() == null) {
+                invalidate();
+                return;
+            }
+            Iterator<Map.Entry<Integer, Tree>> it = trees.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<Integer, Tree> entry = it.next();
+                Tree tree = entry.getValue();
+                if (affected(tree, delta)) {
+                    bytes -= sizeOf(tree);
+                    it.remove();
+                }
+            }
+            graph = delta.after();
+        }
+
+        private static boolean affected(Tree tree, LiveGraph.Delta delta) {
+            // 有新词时保守地让所有树失效，不判断新词是否能从各个源点到达
+            if (delta.addedWords() > 0) {
+                return true;
+            }
+            for (long key : delta.changed()) {
+                int u = (int) (key >>> 32);
+                int v = (int) key;
+                if (!tree.reaches(u)) {
+                    continue;
+                }
+                if (delta.before().hasEdge(u, v) && tree.prev()[v] != u) {
+                    continue;
+                }
+                return true;
+            }
+            return false;
+        }
+
+        synchronized long hits() {
+            return hits;
+        }
+
+        synchronized long misses() {
+            return misses;
+        }
+
+        synchronized int size() {
+            return trees.size();
+        }
+
+        private void bind(WordGraph graph) {
+            if (this.graph != graph) {
+                invalidate();
+                this.graph = graph;
+            }
+        }
+
+        private static long sizeOf(Tree tree) {
+            return 8L * tree.dist().length;
+        }
+    }
+
+    /**
+     * 以外部 key 数组为优先级的索引二叉最小堆，key 相同时按节点 ID 比较。
+     * pos[v] 记录 v 在堆数组中的位置（-1 表示不在堆中），decrease-key 只需上浮一次。
+     */
+    static final class IndexedHeap {
+        private final int[] key;
+        private final int[] heap;
+        private final int[] pos;
+        private int size;
+
+        IndexedHeap(int[] key) {
+            this.key = key;
+            this.heap = new int[key.length];
+            this.pos = new int[key.length];
+            Arrays.fill(pos, -1);
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        boolean contains(int v) {
+            return pos[v] >= 0;
+        }
+
+        int peek() {
+            return heap[0];
+        }
+
+        void push(int v) {
+            heap[size] = v;
+            pos[v] = size;
+            siftUp(size++);
+        }
+
+        /** key[v] 已被调小之后调用：不在堆中则插入，否则上浮。 */
+        void pushOrDecrease(int v) {
+            if (pos[v] < 0) {
+                push(v);
+            } else {
+                siftUp(pos[v]);
+            }
+        }
+
+        /** 清空堆，代价与堆中剩余元素个数成正比，之后可以复用。 */
+        void clear() {
+            for (int i = 0; i < size; i++) {
+                pos[heap[i]] = -1;
+            }
+            size = 0;
+        }
+
+        int poll() {
+            int top = heap[0];
+            pos[top] = -1;
+            if (--size > 0) {
+                heap[0] = heap[size];
+                pos[heap[0]] = 0;
+                siftDown(0);
+            }
+            return top;
+        }
+
+        private boolean less(int a, int b) {
+            return key[a] < key[b] || (key[a] == key[b] && a < b);
+        }
+
+        private void siftUp(int i) {
+            int v = heap[i];
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!less(v, heap[parent])) {
+                    break;
+                }
+                heap[i] = heap[parent];
+                pos[heap[i]] = i;
+                i = parent;
+            }
+            heap[i] = v;
+            pos[v] = i;
+        }
+
+        private void siftDown(int i) {
+            int v = heap[i];
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && less(heap[child + 1], heap[child])) {
+                    child++;
+                }
+                if (!less(heap[child], v)) {
+                    break;
+                }
+                heap[i] = heap[child];
+                pos[heap[i]] = i;
+                i = child;
+            }
+            heap[i] = v;
+            pos[v] = i;
+        }
+    }
+}
@@ -0,0 +1,214 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+public class ShortestPathsTest {
+    private static WordGraph graph;
+
+    @BeforeAll
+    public static void setup() throws Exception {
+        graph = GraphLoader.loadSequential(Path.of("Cursed Be The Treasure.txt"));
+    }
+
+    // 朴素 O(V^2) Dijkstra：每轮线性扫描选出 (距离, ID) 最小的未确定节点，严格变小才松弛
+    private static ShortestPaths.Tree plainDijkstra(WordGraph g, int source) {
+        int n = g.size();
+        int[] dist = new int[n];
+        int[] prev = new int[n];
+        Arrays.fill(dist, ShortestPaths.UNREACHABLE);
+        Arrays.fill(prev, -1);
+        dist[source] = 0;
+        boolean[] done = new boolean[n];
+        while (true) {
+            int u = -1;
+            for (int v = 0; v < n; v++) {
+                if (!done[v] && dist[v] != ShortestPaths.UNREACHABLE && (u == -1 || dist[v] < dist[u])) {
+                    u = v;
+                }
+            }
+            if (u == -1) {
+                return new ShortestPaths.Tree(source, dist, prev);
+            }
+            done[u] = true;
+            for (int i = g.outStart(u); i < g.outEnd(u); i++) {
+                int v = g.target(i);
+                if (!done[v] && dist[u] + g.weight(i) < dist[v]) {
+                    dist[v] = dist[u] + g.weight(i);
+                    prev[v] = u;
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testIndexedHeapMatchesPlainDijkstraIncludingTies() throws Exception {
+        Random rnd = new Random(3);
+        for (int round = 0; round < 40; round++) {
+            // 小字母表的随机文本里等长路径很多
+            StringBuilder text = new StringBuilder();
+            for (int i = 0; i < 80; i++) {
+                text.append((char) ('a' + rnd.nextInt(10))).append(' ');
+            }
+            Path tempFile = Files.createTempFile("graph_input_" + UUID.randomUUID(), ".txt");
+            Files.writeString(tempFile, text.toString());
+            WordGraph g = GraphLoader.loadSequential(tempFile);
+            for (int source = 0; source < g.size(); source++) {
+                ShortestPaths.Tree expected = plainDijkstra(g, source);
+                ShortestPaths.Tree full = ShortestPaths.fromSource(g, source);
+                assertArrayEquals(expected.dist(), full.dist());
+                assertArrayEquals(expected.prev(), full.prev());
+                for (int target = 0; target < g.size(); target++) {
+                    ShortestPaths.Tree point = ShortestPaths.between(g, source, target);
+                    assertEquals(expected.dist()[target], point.dist()[target]);
+                    if (expected.reaches(target)) {
+                        assertArrayEquals(expected.nodes(target), point.nodes(target));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testPointQueryStopsAtTarget() {
+        int source = graph.id("the");
+        ShortestPaths.Tree expected = plainDijkstra(graph, source);
+        int target = graph.target(graph.outStart(source));
+        ShortestPaths.Tree point = ShortestPaths.between(graph, source, target);
+        assertEquals(expected.dist()[target], point.dist()[target]);
+        assertArrayEquals(expected.nodes(target), point.nodes(target));
+        // 提前停止：远处的节点还没有被扩展到
+        int reached = 0;
+        int reachable = 0;
+        for (int v = 0; v < graph.size(); v++) {
+            reached += point.reaches(v) ? 1 : 0;
+            reachable += expected.reaches(v) ? 1 : 0;
+        }
+        assertTrue(reached < reachable);
+    }
+
+    @Test
+    public void testBidirectionalMatchesUnidirectionalIncludingTies() {
+        Random rnd = new Random(7);
+        for (int k = 0; k < 3000; k++) {
+            int source = rnd.nextInt(graph.size());
+            int target = k % 50 == 0 ? source : rnd.nextInt(graph.size());
+            ShortestPaths.Tree expected = ShortestPaths.between(graph, source, target);
+            ShortestPaths.Tree actual = ShortestPaths.bidirectional(graph, source, target);
+            assertEquals(expected.reaches(target), actual.reaches(target));
+            if (expected.reaches(target)) {
+                assertEquals(expected.dist()[target], actual.dist()[target]);
+                assertEquals(expected.path(graph, target), actual.path(graph, target));
+            }
+        }
+    }
+
+    // 暴力枚举所有简单路径的长度，作为 K 短路的对照
+    private static void allSimplePaths(WordGraph g, int u, int target, boolean[] onPath, int length, List<Integer> out) {
+        if (u == target) {
+            out.add(length);
+            return;
+        }
+        onPath[u] = true;
+        for (int i = g.outStart(u); i < g.outEnd(u); i++) {
+            if (!onPath[g.target(i)]) {
+                allSimplePaths(g, g.target(i), target, onPath, length + g.weight(i), out);
+            }
+        }
+        onPath[u] = false;
+    }
+
+    @Test
+    public void testKShortestPathsMatchBruteForce() throws Exception {
+        Random rnd = new Random(11);
+        for (int round = 0; round < 30; round++) {
+            StringBuilder text = new StringBuilder();
+            for (int i = 0; i < 60; i++) {
+                text.append((char) ('a' + rnd.nextInt(8))).append(' ');
+            }
+            Path tempFile = Files.createTempFile("graph_input_" + UUID.randomUUID(), ".txt");
+            Files.writeString(tempFile, text.toString());
+            WordGraph g = GraphLoader.loadSequential(tempFile);
+            int s = rnd.nextInt(g.size());
+            int t = rnd.nextInt(g.size());
+
+            List<Integer> expected = new ArrayList<>();
+            allSimplePaths(g, s, t, new boolean[g.size()], 0, expected);
+            Collections.sort(expected);
+            List<KShortestPaths.WeightedPath> paths = KShortestPaths.find(g, s, t, 40);
+
+            assertEquals(Math.min(40, expected.size()), paths.size());
+            Set<List<String>> distinct = new HashSet<>();
+            for (int k = 0; k < paths.size(); k++) {
+                KShortestPaths.WeightedPath p = paths.get(k);
+                assertEquals(expected.get(k), p.length());
+                assertTrue(distinct.add(p.words(g)));
+                assertEquals(s, p.nodes()[0]);
+                assertEquals(t, p.nodes()[p.nodes().length - 1]);
+                assertEquals(p.nodes().length, new HashSet<>(p.words(g)).size());
+            }
+        }
+    }
+
+    @Test
+    public void testFirstOfKShortestIsTheShortestPath() {
+        int source = graph.id("the");
+        int target = graph.id("treasure");
+        List<KShortestPaths.WeightedPath> paths = KShortestPaths.find(graph, source, target, 50);
+        assertEquals(50, paths.size());
+        ShortestPaths.Tree tree = ShortestPaths.between(graph, source, target);
+        assertEquals(tree.dist()[target], paths.get(0).length());
+        assertEquals(tree.path(graph, target), paths.get(0).words(graph));
+        for (int k = 1; k < paths.size(); k++) {
+            assertTrue(paths.get(k - 1).length() <= paths.get(k).length());
+        }
+    }
+
+    @Test
+    public void testCachedTreeAnswersLikePointQuery() {
+        ShortestPaths.TreeCache cache = new ShortestPaths.TreeCache(64L << 20);
+        int source = graph.id("the");
+        assertNull(cache.get(graph, source));
+        ShortestPaths.Tree full = cache.fullTree(graph, source);
+        assertSame(full, cache.get(graph, source));
+        for (int target = 0; target < graph.size(); target += 37) {
+            ShortestPaths.Tree point = ShortestPaths.between(graph, source, target);
+            assertEquals(point.reaches(target), full.reaches(target));
+            if (full.reaches(target)) {
+                assertEquals(point.dist()[target], full.dist()[target]);
+                assertEquals(point.path(graph, target), full.path(graph, target));
+            }
+        }
+        assertEquals(1, cache.hits());
+        assertEquals(2, cache.misses());
+    }
+
+    @Test
+    public void testCacheEvictsLeastRecentlyUsedAndInvalidatesOnReload() throws Exception {
+        // 每棵树 8 * V 字节，预算只够放两棵
+        ShortestPaths.TreeCache cache = new ShortestPaths.TreeCache(2L * 8 * graph.size());
+        cache.fullTree(graph, 0);
+        cache.fullTree(graph, 1);
+        cache.get(graph, 0);
+        cache.fullTree(graph, 2);
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get(graph, 0));
+        assertNull(cache.get(graph, 1));
+
+        Path tempFile = Files.createTempFile("graph_input_" + UUID.randomUUID(), ".txt");
+        Files.writeString(tempFile, "a b c");
+        WordGraph reloaded = GraphLoader.loadSequential(tempFile);
+        assertNull(cache.get(reloaded, 0));
+        assertEquals(0, cache.size());
+    }
+}
@@ -0,0 +1,129 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 流式改写整篇文档：逐字节读取输入文件，按句子（. ! ? 或超过 MAX_SENTENCE_WORDS 个词）切分，
+ * 每个句子在 fork-join 线程池上插入桥接词，再按原顺序写入输出文件，每句一行。
+ * 输出的单词序列与对整篇文本调用 generateNewText 相同：上一句的最后一个词会带入下一句，
+ * 因此跨句的相邻词对同样会插入桥接词。
+ * 每句的 SplittableRandom 由以 seed 初始化的根生成器按句子顺序 split 得到，结果与线程调度无关，可复现。
+ */
+final class TextRewriter {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int MAX_SENTENCE_WORDS = 4096;
+
+    private TextRewriter() {
+    }
+
+    /** 一次改写的统计：输入、输出字节数与耗时。 */
+    record Stats(long bytesIn, long bytesOut, long sentences, long nanos) {
+        double megabytesPerSecond() {
+            return nanos == 0 ? 0 : bytesIn / (1024.0 * 1024.0) / (nanos / 1e9);
+        }
+    }
+
+    static Stats rewrite(WordGraph graph, Path input, Path output, long seed) throws IOException {
+        long start = System.nanoTime();
+        int window = ForkJoinPool.commonPool().getParallelism() * 4;
+        ArrayDeque<CompletableFuture<String>> pending = new ArrayDeque<>();
+        long bytesIn = 0;
+        long[] bytesOut = {0};
+        long sentences = 0;
+        SplittableRandom root = new SplittableRandom(seed);
+
+        try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ);
+             BufferedWriter writer = Files.newBufferedWriter(output, StandardCharsets.US_ASCII)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            StringBuilder token = new StringBuilder();
+            List<String> sentence = new ArrayList<>();
+            String carried = null;
+            int n;
+            while ((n = channel.read(buffer)) != -1) {
+                bytesIn += n;
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    byte b = buffer.get();
+                    if ((b >= 'a' && b <= 'z') || (b >= 'A' && b <= 'Z')) {
+                        token.append((char) (b | 0x20));
+                        continue;
+                    }
+                    if (token.length() > 0) {
+                        sentence.add(token.toString());
+                        token.setLength(0);
+                    }
+                    if ((b == '.' || b == '!' || b == '?' || sentence.size() >= MAX_SENTENCE_WORDS)
+                            && !sentence.isEmpty()) {
+                        submit(graph, carried, sentence, root.split(), pending);
+                        sentences++;
+                        carried = sentence.getLast();
+                        sentence = new ArrayList<>();
+                        drain(writer, pending, window, bytesOut);
+                    }
+                }
+                buffer.clear();
+            }
+            if (token.length() > 0) {
+                sentence.add(token.toString());
+            }
+            if (!sentence.isEmpty()) {
+                submit(graph, carried, sentence, root.split(), pending);
+                sentences++;
+            }
+            drain(writer, pending, 0, bytesOut);
+        }
+        return new Stats(bytesIn, bytesOut[0], sentences, System.nanoTime() - start);
+    }
+
+    private static void submit(WordGraph graph, String carried, List<String> words, SplittableRandom random,
+                               ArrayDeque<CompletableFuture<String>> pending) {
+        pending.addLast(CompletableFuture.supplyAsync(() -> rewriteSentence(graph, carried, words, random)));
+    }
+
+    /** 按提交顺序写出已完成的句子，直到在途句子数不超过 window。 */
+    private static void drain(BufferedWriter writer, ArrayDeque<CompletableFuture<String>> pending, int window,
+                              long[] bytesOut) throws IOException {
+        while (pending.size() > window || (!pending.isEmpty() && pending.peekFirst().isDone())) {
+            String line = pending.removeFirst().join();
+            writer.write(line);
+            writer.newLine();
+            bytesOut[0] += line.length() + 1;
+        }
+    }
+
+    /**
+     * 改写一个句子。carried 为上一句的最后一个词（首句为 null），它只参与桥接词查询，不会重复输出。
+     */
+    static String rewriteSentence(WordGraph graph, String carried, List<String> words, SplittableRandom random) {
+        StringBuilder sb = new StringBuilder();
+        int prev = carried == null ? -1 : graph.id(carried);
+        for (String word : words) {
+            int id = graph.id(word);
+            int[] bridges = graph.bridges(prev, id);
+            if (bridges.length > 0) {
+                append(sb, graph.word(bridges[random.nextInt(bridges.length)]));
+            }
+            append(sb, word);
+            prev = id;
+        }
+        return sb.toString();
+    }
+
+    private static void append(StringBuilder sb, String word) {
+        if (sb.length() > 0) {
+            sb.append(' ');
+        }
+        sb.append(word);
+    }
+}
@@ -0,0 +1,37 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+
+public class TextRewriterTest {
+
+    private Path writeTemp(String content) throws Exception {
+        Path tempFile = Files.createTempFile("graph_input_" + UUID.randomUUID(), ".txt");
+        Files.writeString(tempFile, content);
+        return tempFile;
+    }
+
+    @Test
+    public void testBridgesInsertedAcrossSentences() throws Exception {
+        WordGraph graph = GraphLoader.loadSequential(writeTemp("a b c d e"));
+        Path out = Files.createTempFile("rewrite_" + UUID.randomUUID(), ".txt");
+        TextRewriter.Stats stats = TextRewriter.rewrite(graph, writeTemp("A c. E! a, c"), out, 1L);
+        // 唯一的桥接词使结果确定；"c. e" 跨句但仍插入 d
+        assertEquals(3, stats.sentences());
+        assertEquals("a b c\nd e\na b c", Files.readString(out).strip().replace("\r", ""));
+    }
+
+    @Test
+    public void testSameSeedIsReproducible() throws Exception {
+        WordGraph graph = GraphLoader.loadSequential(Path.of("Cursed Be The Treasure.txt"));
+        Path input = Path.of("Cursed Be The Treasure.txt");
+        Path out1 = Files.createTempFile("rewrite_" + UUID.randomUUID(), ".txt");
+        Path out2 = Files.createTempFile("rewrite_" + UUID.randomUUID(), ".txt");
+        TextRewriter.rewrite(graph, input, out1, 2024L);
+        TextRewriter.rewrite(graph, input, out2, 2024L);
+        assertEquals(Files.readString(out1), Files.readString(out2));
+        assertTrue(Files.size(out1) > 0);
+    }
+}
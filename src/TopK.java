@@ -0,0 +1,73 @@
+/**
+ * 分数最高的 k 个下标，用大小为 k 的最小堆（堆顶是已保留的最差者）一次扫描得到，O(n log k)，
+ * 不需要对全部 n 个分数排序，也不装箱。次序与各处排名一致：分数降序，同分时下标小的在前。
+ */
+final class TopK {
+    private TopK() {
+    }
+
+    /** 返回按排名排列的前 min(k, n) 个下标。 */
+    static int[] of(double[] scores, int k) {
+        int size = Math.max(0, Math.min(k, scores.length));
+        int[] heap = new int[size];
+        if (size == 0) {
+            return heap;
+        }
+        int count = 0;
+        for (int v = 0; v < scores.length; v++) {
+            if (count < size) {
+                heap[count] = v;
+                siftUp(heap, count++, scores);
+            } else if (better(v, heap[0], scores)) {
+                heap[0] = v;
+                siftDown(heap, 0, size, scores);
+            }
+        }
+        // 依次把最差者换到末尾，数组即按排名排列
+        for (int end = size - 1; end > 0; end--) {
+            int worst = heap[0];
+            heap[0] = heap[end];
+            heap[end] = worst;
+            siftDown(heap, 0, end, scores);
+        }
+        return heap;
+    }
+
+    private static boolean better(int a, int b, double[] scores) {
+        return scores[a] > scores[b] || (scores[a] == scores[b] && a < b);
+    }
+
+    private static void siftUp(int[] heap, int i, double[] scores) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!better(heap[parent], heap[i], scores)) {
+                return;
+            }
+            int t = heap[parent];
+            heap[parent] = heap[i];
+            heap[i] = t;
+            i = parent;
+        }
+    }
+
+    private static void siftDown(int[] heap, int i, int size, double[] scores) {
+        while (true) {
+            int worst = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < size && better(heap[worst], heap[left], scores)) {
+                worst = left;
+            }
+            if (right < size && better(heap[worst], heap[right], scores)) {
+                worst = right;
+            }
+            if (worst == i) {
+                return;
+            }
+            int t = heap[worst];
+            heap[worst] = heap[i];
+            heap[i] = t;
+            i = worst;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+public class TopKTest {
+
+    private int[] fullSort(double[] scores) {
+        return IntStream.range(0, scores.length).boxed()
+                .sorted((a, b) -> scores[a] != scores[b] ? Double.compare(scores[b], scores[a]) : Integer.compare(a, b))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    @Test
+    public void testMatchesPrefixOfFullSortIncludingTies() {
+        SplittableRandom random = new SplittableRandom(11);
+        for (int round = 0; round < 50; round++) {
+            double[] scores = new double[random.nextInt(1, 2000)];
+            for (int i = 0; i < scores.length; i++) {
+                // 分数只取少数几个值，制造大量同分
+                scores[i] = random.nextInt(round % 2 == 0 ? 5 : 1_000_000) / 7.0;
+            }
+            int[] sorted = fullSort(scores);
+            for (int k : new int[]{1, 2, 10, scores.length / 2, scores.length, scores.length + 5}) {
+                int[] top = TopK.of(scores, k);
+                assertEquals(Math.min(k, scores.length), top.length);
+                for (int i = 0; i < top.length; i++) {
+                    assertEquals(sorted[i], top[i], "k = " + k + ", i = " + i);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testEmptyInputs() {
+        assertEquals(0, TopK.of(new double[0], 5).length);
+        assertEquals(0, TopK.of(new double[]{1, 2}, 0).length);
+    }
+
+    @Test
+    public void testPageRankTopAgreesWithFullMap() throws Exception {
+        Path tempFile = Files.createTempFile("graph_input_" + UUID.randomUUID(), ".txt");
+        Files.writeString(tempFile, "the cat sat on the mat and the dog sat on the log while the cat ran");
+        Lab1.clearGraph();
+        Lab1.parseTextToGraph(tempFile.toString());
+        Map<String, Double> all = Lab1.calPageRank(0.85);
+        Map<String, Double> top = Lab1.calPageRankTop(0.85, 3);
+        assertEquals(3, top.size());
+        assertEquals("the", top.keySet().iterator().next());
+        double previous = Double.MAX_VALUE;
+        for (Map.Entry<String, Double> e : top.entrySet()) {
+            // 第二次计算从第一次的结果热启动，两者只在收敛容差内一致
+            assertEquals(all.get(e.getKey()), e.getValue(), 1e-6);
+            assertTrue(e.getValue() <= previous);
+            previous = e.getValue();
+        }
+        // 不在前 3 个中的词分数都不超过第 3 名
+        double third = previous;
+        all.forEach((word, score) -> assertTrue(top.containsKey(word) || score <= third + 1e-6, word));
+    }
+}
@@ -0,0 +1,547 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 冻结的有向词图。
+ * 单词通过唯一的词表映射为稠密的 int ID（按首次出现顺序编号），
+ * 边以 CSR 形式存储：offsets[u]..offsets[u+1] 为 u 的出边，每行内按目标 ID 升序排列；
+ * 构建时同时生成转置的入边索引 inOffsets / sources / inWeights，每行内按源 ID 升序排列。
+ * 词表覆盖所有单词（包括只作为终点出现的词），成员判断为常数时间；
+ * 追加得到的图与原图共享词表，新词放在同一条追加链共享的 Overlay 中。
+ * 构建完成后不可变，可以在多个线程之间安全共享。
+ */
+public final class WordGraph {
+    public static final WordGraph EMPTY = new Builder().build();
+
+    private final String[] words;
+    private final Map<String, Integer> ids;
+    private final Overlay overlay;
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] weights;
+    private final int[] inOffsets;
+    private final int[] sources;
+    private final int[] inWeights;
+
+    private WordGraph(String[] words, Map<String, Integer> ids, int[] offsets, int[] targets, int[] weights) {
+        this.words = words;
+        this.ids = ids;
+        this.overlay = null;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+
+        // 按行顺序遍历出边做计数排序，得到的入边行天然按源 ID 升序
+        int n = words.length;
+        inOffsets = new int[n + 1];
+        sources = new int[targets.length];
+        inWeights = new int[targets.length];
+        for (int t : targets) {
+            inOffsets[t + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            inOffsets[v + 1] += inOffsets[v];
+        }
+        int[] fill = Arrays.copyOf(inOffsets, n);
+        for (int u = 0; u < n; u++) {
+            for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                int slot = fill[targets[i]]++;
+                sources[slot] = u;
+                inWeights[slot] = weights[i];
+            }
+        }
+    }
+
+    /** 直接由完整的出边与入边 CSR 数组构造（用于从快照恢复），不再重新计算入边索引。 */
+    static WordGraph fromArrays(String[] words, int[] offsets, int[] targets, int[] weights,
+                                int[] inOffsets, int[] sources, int[] inWeights) {
+        Map<String, Integer> ids = new HashMap<>(words.length * 4 / 3 + 1);
+        for (int i = 0; i < words.length; i++) {
+            ids.put(words[i], i);
+        }
+        return new WordGraph(words, ids, null, offsets, targets, weights, inOffsets, sources, inWeights);
+    }
+
+    private WordGraph(String[] words, Map<String, Integer> ids, Overlay overlay, int[] offsets, int[] targets,
+                      int[] weights, int[] inOffsets, int[] sources, int[] inWeights) {
+        this.words = words;
+        this.ids = ids;
+        this.overlay = overlay;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.inOffsets = inOffsets;
+        this.sources = sources;
+        this.inWeights = inWeights;
+    }
+
+    /** 节点数（词表大小）。 */
+    public int size() {
+        return words.length;
+    }
+
+    /** 不同边（二元组）的条数。 */
+    public int edgeCount() {
+        return targets.length;
+    }
+
+    /**
+     * 粗略估计图占用的堆内存（字节）：六个 CSR 数组，加上词表的字符串、数组与 HashMap。
+     * 按 64 位 JVM、压缩指针和 Latin-1 字符串计算，不含 JVM 自身的对齐差异。
+     */
+    public long estimatedBytes() {
+        long arrays = 6 * 16L + 4L * (offsets.length + targets.length + weights.length
+                + inOffsets.length + sources.length + inWeights.length);
+        long strings = 16 + 4L * words.length;
+        for (String word : words) {
+            // String 对象 24 字节，byte[] 16 字节头加内容并按 8 字节对齐
+            strings += 24 + ((16 + word.length() + 7) & ~7L);
+        }
+        long table = Integer.highestOneBit(Math.max(1, words.length * 4 / 3)) * 2L;
+        // 每个条目一个 32 字节的 HashMap.Node 和一个 16 字节的 Integer
+        long map = 48 + 16 + 4 * table + 48L * words.length;
+        return arrays + strings + map;
+    }
+
+    /** 返回单词的 ID，不在图中时返回 -1。 */
+    public int id(String word) {
+        Integer id = ids.get(word);
+        if (id == null && overlay != null) {
+            id = overlay.ids.get(word);
+            // 共享词表里还有更新的版本才加入的词
+            if (id != null && id >= words.length) {
+                id = null;
+            }
+        }
+        return id == null ? -1 : id;
+    }
+
+    public boolean contains(String word) {
+        return id(word) >= 0;
+    }
+
+    public String word(int id) {
+        return words[id];
+    }
+
+    public int outStart(int u) {
+        return offsets[u];
+    }
+
+    public int outEnd(int u) {
+        return offsets[u + 1];
+    }
+
+    public int outDegree(int u) {
+        return offsets[u + 1] - offsets[u];
+    }
+
+    /** 第 i 条边（CSR 下标）的终点。 */
+    public int target(int i) {
+        return targets[i];
+    }
+
+    /** 第 i 条边（CSR 下标）的权重，即该二元组在文本中出现的次数。 */
+    public int weight(int i) {
+        return weights[i];
+    }
+
+    public int inStart(int v) {
+        return inOffsets[v];
+    }
+
+    public int inEnd(int v) {
+        return inOffsets[v + 1];
+    }
+
+    public int inDegree(int v) {
+        return inOffsets[v + 1] - inOffsets[v];
+    }
+
+    /** 第 i 条入边（入边 CSR 下标）的起点。 */
+    public int source(int i) {
+        return sources[i];
+    }
+
+    public int inWeight(int i) {
+        return inWeights[i];
+    }
+
+    /** 返回边 u -> v 的 CSR 下标，不存在时返回负数。 */
+    public int edgeIndex(int u, int v) {
+        return Arrays.binarySearch(targets, offsets[u], offsets[u + 1], v);
+    }
+
+    public boolean hasEdge(int u, int v) {
+        return edgeIndex(u, v) >= 0;
+    }
+
+    /**
+     * 返回 u -> mid -> w 中所有桥接词 mid 的 ID（升序）。
+     * 即有序数组 out(u) 与 in(w) 的交集：两侧长度相近时线性归并，
+     * 相差悬殊时用较短一侧的元素在较长一侧上做二分查找。
+     */
+    public int[] bridges(int u, int w) {
+        if (u < 0 || w < 0) {
+            return new int[0];
+        }
+        return intersect(targets, offsets[u], offsets[u + 1], sources, inOffsets[w], inOffsets[w + 1]);
+    }
+
+    static int[] intersect(int[] a, int aFrom, int aTo, int[] b, int bFrom, int bTo) {
+        int aLen = aTo - aFrom;
+        int bLen = bTo - bFrom;
+        if (aLen > bLen) {
+            return intersect(b, bFrom, bTo, a, aFrom, aTo);
+        }
+        int[] result = new int[aLen];
+        int count = 0;
+        if ((long) aLen * (32 - Integer.numberOfLeadingZeros(bLen)) < bLen) {
+            // aLen * log2(bLen) < bLen：逐个二分，并利用有序性不断缩小查找区间
+            int lo = bFrom;
+            for (int i = aFrom; i < aTo && lo < bTo; i++) {
+                int pos = Arrays.binarySearch(b, lo, bTo, a[i]);
+                if (pos >= 0) {
+                    result[count++] = a[i];
+                    lo = pos + 1;
+                } else {
+                    lo = -pos - 1;
+                }
+            }
+        } else {
+            int i = aFrom;
+            int j = bFrom;
+            while (i < aTo && j < bTo) {
+                if (a[i] < b[j]) {
+                    i++;
+                } else if (a[i] > b[j]) {
+                    j++;
+                } else {
+                    result[count++] = a[i];
+                    i++;
+                    j++;
+                }
+            }
+        }
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+
+    /**
+     * 一条追加链上各版本共享的新词表，只增不减；每个版本只认 ID 小于自身节点数的条目。
+     * tip 为最新版本的节点数，只有以最新版本为基础的构建器才能继续往里加词，其余的复制一份。
+     */
+    private static final class Overlay {
+        final Map<String, Integer> ids = new ConcurrentHashMap<>();
+        final AtomicInteger tip;
+
+        Overlay(int tip) {
+            this.tip = new AtomicInteger(tip);
+        }
+    }
+
+    /** 一组行压缩数组（出边或入边）。 */
+    private record Csr(int[] offsets, int[] columns, int[] weights) {
+    }
+
+    /**
+     * 增量构建器：先 intern 单词，再累加二元组计数，最后 build() 冻结为 CSR。
+     * 计数表使用开放寻址的 long -> int 表，键为 (from << 32 | to)，避免装箱。
+     * 以已有的图为基础创建时，构建器只记录新词与新增的计数，词表通过 Overlay 与基础图共享（ID 不变，新词接在后面）。
+     * build() 对出边与入边两组 CSR 数组各做一次归并：没有变化的连续行整段 System.arraycopy，
+     * 只有新增计数所在的行逐项归并。CSR 是连续数组，所以每次仍要 O(V + E) 的顺序复制，
+     * 但散列、排序等其余工作只与新词和新增二元组的数量成正比。
+     * 构建器只能 build 一次：词表直接交给得到的图，之后再修改会抛出 IllegalStateException。
+     */
+    public static final class Builder {
+        private static final long EMPTY_KEY = -1L;
+
+        private final WordGraph base;
+        /** 第一个新词的 ID，即基础图的节点数。 */
+        private final int first;
+        /** 本构建器新加入的词（没有基础图时即全部的词）。 */
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final List<String> words = new ArrayList<>();
+        private long[] keys = newKeys(64);
+        private int[] counts = new int[64];
+        private int edges;
+        private boolean built;
+
+        public Builder() {
+            base = null;
+            first = 0;
+        }
+
+        public Builder(WordGraph base) {
+            this.base = base;
+            first = base.size();
+        }
+
+        public int intern(String word) {
+            checkOpen();
+            if (base != null) {
+                int id = base.id(word);
+                if (id >= 0) {
+                    return id;
+                }
+            }
+            Integer id = ids.get(word);
+            if (id == null) {
+                id = first + words.size();
+                ids.put(word, id);
+                words.add(word);
+            }
+            return id;
+        }
+
+        private int size() {
+            return first + words.size();
+        }
+
+        private String word(int id) {
+            return id < first ? base.words[id] : words.get(id - first);
+        }
+
+        public void addEdge(int from, int to) {
+            addEdge(from, to, 1);
+        }
+
+        public void addEdge(int from, int to, int count) {
+            checkOpen();
+            if ((edges + 1) * 2 > keys.length) {
+                rehash(keys.length * 2);
+            }
+            long key = ((long) from << 32) | (to & 0xffffffffL);
+            int mask = keys.length - 1;
+            int slot = mix(key) & mask;
+            while (keys[slot] != EMPTY_KEY && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            if (keys[slot] == EMPTY_KEY) {
+                keys[slot] = key;
+                edges++;
+            }
+            counts[slot] += count;
+        }
+
+        /**
+         * 把另一个构建器的词表和边计数并入当前构建器，返回对方局部 ID 到本构建器 ID 的映射。
+         * 对方的单词按其局部 ID 顺序 intern，因此按文件顺序合并时首次出现顺序保持不变。
+         */
+        int[] mergeFrom(Builder other) {
+            int[] map = new int[other.size()];
+            for (int i = 0; i < map.length; i++) {
+                map[i] = intern(other.word(i));
+            }
+            for (int slot = 0; slot < other.keys.length; slot++) {
+                long key = other.keys[slot];
+                if (key != EMPTY_KEY) {
+                    addEdge(map[(int) (key >>> 32)], map[(int) key], other.counts[slot]);
+                }
+            }
+            return map;
+        }
+
+        /** 把一张完整的图的词（按其 ID 顺序）与带权重的边加入当前构建器。 */
+        void addGraph(WordGraph other) {
+            int[] map = new int[other.size()];
+            for (int i = 0; i < map.length; i++) {
+                map[i] = intern(other.words[i]);
+            }
+            for (int u = 0; u < map.length; u++) {
+                for (int i = other.offsets[u]; i < other.offsets[u + 1]; i++) {
+                    addEdge(map[u], map[other.targets[i]], other.weights[i]);
+                }
+            }
+        }
+
+        /** 本构建器记录的边（以基础图创建时只含新增部分），按 (from, to) 升序打包为 long。 */
+        long[] edgeKeys() {
+            long[] sorted = new long[edges];
+            int k = 0;
+            for (int slot = 0; slot < keys.length; slot++) {
+                if (keys[slot] != EMPTY_KEY) {
+                    sorted[k++] = keys[slot];
+                }
+            }
+            // (from, to) 打包后的 long 排序即为按行、行内按目标升序
+            Arrays.sort(sorted);
+            return sorted;
+        }
+
+        public WordGraph build() {
+            checkOpen();
+            built = true;
+            int n = size();
+            long[] sorted = edgeKeys();
+            if (base != null) {
+                return mergeWithBase(sorted);
+            }
+            int[] sortedCounts = new int[edges];
+            int[] offsets = new int[n + 1];
+            int[] targets = new int[edges];
+            for (int i = 0; i < edges; i++) {
+                int from = (int) (sorted[i] >>> 32);
+                targets[i] = (int) sorted[i];
+                sortedCounts[i] = count(sorted[i]);
+                offsets[from + 1]++;
+            }
+            for (int u = 0; u < n; u++) {
+                offsets[u + 1] += offsets[u];
+            }
+            return new WordGraph(words.toArray(new String[0]), ids, offsets, targets, sortedCounts);
+        }
+
+        private WordGraph mergeWithBase(long[] sorted) {
+            int n = size();
+            int[] outCounts = new int[sorted.length];
+            long[] transposed = new long[sorted.length];
+            int added = 0;
+            for (int k = 0; k < sorted.length; k++) {
+                int from = (int) (sorted[k] >>> 32);
+                outCounts[k] = count(sorted[k]);
+                transposed[k] = (sorted[k] << 32) | (sorted[k] >>> 32);
+                if (from >= first || base.edgeIndex(from, (int) sorted[k]) < 0) {
+                    added++;
+                }
+            }
+            Arrays.sort(transposed);
+            int[] inCounts = new int[sorted.length];
+            for (int k = 0; k < transposed.length; k++) {
+                inCounts[k] = count((transposed[k] << 32) | (transposed[k] >>> 32));
+            }
+            int m = base.edgeCount() + added;
+            Csr out = merge(base.offsets, base.targets, base.weights, n, m, sorted, outCounts);
+            Csr in = merge(base.inOffsets, base.sources, base.inWeights, n, m, transposed, inCounts);
+
+            String[] allWords = Arrays.copyOf(base.words, n);
+            for (int i = 0; i < words.size(); i++) {
+                allWords[first + i] = words.get(i);
+            }
+            return new WordGraph(allWords, base.ids, overlay(n), out.offsets(), out.columns(), out.weights(),
+                    in.offsets(), in.columns(), in.weights());
+        }
+
+        /** 把新词放进基础图的 Overlay；基础图已不是追加链的最新版本时，复制其中 ID 小于 first 的部分另起一份。 */
+        private Overlay overlay(int n) {
+            Overlay shared = base.overlay;
+            if (words.isEmpty()) {
+                return shared;
+            }
+            if (shared == null || !shared.tip.compareAndSet(first, n)) {
+                Overlay copy = new Overlay(n);
+                if (shared != null) {
+                    for (Map.Entry<String, Integer> e : shared.ids.entrySet()) {
+                        if (e.getValue() < first) {
+                            copy.ids.put(e.getKey(), e.getValue());
+                        }
+                    }
+                }
+                shared = copy;
+            }
+            shared.ids.putAll(ids);
+            return shared;
+        }
+
+        /**
+         * 把按 (行, 列) 升序的新增计数 delta 归并进基础图的一组 CSR 数组，得到 n 行、m 条边的新数组。
+         * delta 中没有出现的连续行整段复制，行偏移统一平移。
+         */
+        private static Csr merge(int[] offsets, int[] columns, int[] weights, int n, int m, long[] delta,
+                                 int[] counts) {
+            int baseRows = offsets.length - 1;
+            int[] mergedOffsets = new int[n + 1];
+            int[] mergedColumns = new int[m];
+            int[] mergedWeights = new int[m];
+            int e = 0;
+            int k = 0;
+            int row = 0;
+            while (row < n) {
+                int next = k < delta.length ? (int) (delta[k] >>> 32) : n;
+                int copyEnd = Math.min(next, baseRows);
+                if (row < copyEnd) {
+                    int from = offsets[row];
+                    int length = offsets[copyEnd] - from;
+                    System.arraycopy(columns, from, mergedColumns, e, length);
+                    System.arraycopy(weights, from, mergedWeights, e, length);
+                    for (int u = row; u < copyEnd; u++) {
+                        mergedOffsets[u] = offsets[u] - from + e;
+                    }
+                    e += length;
+                }
+                for (int u = Math.max(row, copyEnd); u < next; u++) {
+                    mergedOffsets[u] = e;
+                }
+                if (next == n) {
+                    break;
+                }
+                mergedOffsets[next] = e;
+                int i = next < baseRows ? offsets[next] : 0;
+                int end = next < baseRows ? offsets[next + 1] : 0;
+                while (i < end || (k < delta.length && (int) (delta[k] >>> 32) == next)) {
+                    int fromDelta = k < delta.length && (int) (delta[k] >>> 32) == next ? (int) delta[k] : Integer.MAX_VALUE;
+                    int fromBase = i < end ? columns[i] : Integer.MAX_VALUE;
+                    mergedColumns[e] = Math.min(fromBase, fromDelta);
+                    if (fromBase == mergedColumns[e]) {
+                        mergedWeights[e] += weights[i++];
+                    }
+                    if (fromDelta == mergedColumns[e]) {
+                        mergedWeights[e] += counts[k++];
+                    }
+                    e++;
+                }
+                row = next + 1;
+            }
+            mergedOffsets[n] = e;
+            return new Csr(mergedOffsets, mergedColumns, mergedWeights);
+        }
+
+        private void checkOpen() {
+            if (built) {
+                throw new IllegalStateException("构建器已经生成过图，不能再修改");
+            }
+        }
+
+        private int count(long key) {
+            int mask = keys.length - 1;
+            int slot = mix(key) & mask;
+            while (keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            return counts[slot];
+        }
+
+        private void rehash(int capacity) {
+            long[] oldKeys = keys;
+            int[] oldCounts = counts;
+            keys = newKeys(capacity);
+            counts = new int[capacity];
+            int mask = capacity - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY_KEY) {
+                    int slot = mix(oldKeys[i]) & mask;
+                    while (keys[slot] != EMPTY_KEY) {
+                        slot = (slot + 1) & mask;
+                    }
+                    keys[slot] = oldKeys[i];
+                    counts[slot] = oldCounts[i];
+                }
+            }
+        }
+
+        private static long[] newKeys(int capacity) {
+            long[] k = new long[capacity];
+            Arrays.fill(k, EMPTY_KEY);
+            return k;
+        }
+
+        private static int mix(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}